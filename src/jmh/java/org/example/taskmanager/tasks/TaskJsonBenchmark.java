@@ -0,0 +1,68 @@
+package org.example.taskmanager.tasks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON response bodies of GET /tasks/{id} and GET /tasks, serialized the way the MVC message converter does it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Task task;
+    private Page<Task> page;
+    private String taskJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // same defaults as Spring Boot's JacksonAutoConfiguration
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        var now = LocalDateTime.now();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            tasks.add(new Task((long) i, "benchmark" + i, "description of the task", 1L, 2L, Status.CREATED,
+                    now, now.plusDays(5), Priority.MEDIUM, null, 0L));
+        }
+        task = tasks.get(0);
+        page = new PageImpl<>(tasks, PageRequest.of(0, pageSize), 10_000);
+        taskJson = objectMapper.writeValueAsString(task);
+    }
+
+    @Benchmark
+    public byte[] serializeTask() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Task deserializeTask() throws JsonProcessingException {
+        return objectMapper.readValue(taskJson, Task.class);
+    }
+}
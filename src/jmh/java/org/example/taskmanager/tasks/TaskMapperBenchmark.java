@@ -0,0 +1,39 @@
+package org.example.taskmanager.tasks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/domain mapping done for every task that leaves or enters the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+    private TaskEntity entity;
+    private Task task;
+
+    @Setup
+    public void setUp() {
+        var now = LocalDateTime.now();
+        entity = new TaskEntity(1L, "benchmark", "description of the task", 1L, 2L, Status.IN_PROGRESS,
+                now, now.plusDays(5), Priority.HIGH, null);
+        task = TaskMapper.fromEntityToDomain(entity);
+    }
+
+    @Benchmark
+    public Task fromEntityToDomain() {
+        return TaskMapper.fromEntityToDomain(entity);
+    }
+
+    @Benchmark
+    public TaskEntity fromDomainToEntity() {
+        return TaskMapper.fromDomainToEntity(task);
+    }
+}
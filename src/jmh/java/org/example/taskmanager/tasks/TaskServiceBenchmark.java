@@ -0,0 +1,107 @@
+package org.example.taskmanager.tasks;
+
+import org.example.taskmanager.TaskmanagerApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService methods behind the REST endpoints, against the embedded H2 configured for tests.
+ * The task cache is switched off, so every call goes through JPA to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate and H2 code paths need a long warmup before the JIT has compiled them
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private static final int TASKS = 10_000;
+    private static final int USERS = 100;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskmanagerApplication.class)
+                .web(WebApplicationType.NONE)
+                // command line arguments, so they win over application.properties
+                .run(
+                        "--spring.cache.type=none",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.example.taskmanager=WARN");
+        taskService = context.getBean(TaskService.class);
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            tasks.add(newTask(i));
+        }
+        firstId = taskService.createNewTasks(tasks).get(0).task().id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Task getTaskById() {
+        return taskService.getTaskById(firstId + ThreadLocalRandom.current().nextInt(TASKS));
+    }
+
+    @Benchmark
+    public Page<Task> getAllTasks() {
+        return taskService.getAllTasks(Pageable.ofSize(20).withPage(ThreadLocalRandom.current().nextInt(10)));
+    }
+
+    @Benchmark
+    public TaskCursorPage getAllTasksAfter() {
+        String cursor = TaskCursor.encode(firstId + ThreadLocalRandom.current().nextInt(TASKS));
+        return taskService.getAllTasksAfter(cursor, 20);
+    }
+
+    @Benchmark
+    public List<Task> searchAllByFilter() {
+        long assignedUserId = 1 + ThreadLocalRandom.current().nextInt(USERS);
+        return taskService.searchAllByFilter(TaskSearchFilter.builder().assignedUserId(assignedUserId).status(Status.CREATED).pageSize(20).pageNum(0).build());
+    }
+
+    @Benchmark
+    public List<Task> getAllTasksOfOneAssignedUser() {
+        return taskService.getAllTasksOfOneAssignedUser(1L + ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    @Benchmark
+    public UserTaskStats getUserTaskStats() {
+        return taskService.getUserTaskStats(1L + ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    @Benchmark
+    public Task createNewTask() {
+        return taskService.createNewTask(newTask(ThreadLocalRandom.current().nextInt(TASKS)));
+    }
+
+
+    private static Task newTask(int i) {
+        return Task.builder()
+                .title("benchmark" + i)
+                .creatorId(1L)
+                .assignedUserId(1L + i % USERS)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.values()[i % Priority.values().length])
+                .build();
+    }
+}
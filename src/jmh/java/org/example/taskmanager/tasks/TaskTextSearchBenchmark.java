@@ -0,0 +1,85 @@
+package org.example.taskmanager.tasks;
+
+import org.example.taskmanager.TaskmanagerApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The q filter of GET /tasks/filter on 1M tasks in the embedded H2, answered by the in-memory {@link TaskTextIndex},
+ * next to the LIKE '%word%' scan it replaces. Title words: "w0".."w999" match 1000 tasks each,
+ * "v0".."v99" 10000 tasks each, "task{n}" exactly one. Description words "d0".."d49999" match 20 tasks each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TaskTextSearchBenchmark {
+
+    private static final int TASKS = 1_000_000;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskTextIndex textIndex;
+    private JdbcTemplate jdbcTemplate;
+
+    @Param({"task4711", "d4711", "w17", "v3", "w17 v19"})
+    public String q;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskmanagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.cache.type=none",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.example.taskmanager=WARN");
+        taskService = context.getBean(TaskService.class);
+        textIndex = context.getBean(TaskTextIndex.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, "task title", "task description", "creator id", "assigned user id", status,
+                    "create date and time", "dead line date and time", priority, version)
+                SELECT X, 'task' || X || ' w' || MOD(X, 1000) || ' v' || MOD(X * 7, 100), 'd' || MOD(X, 50000), 1, 1 + MOD(X, 100), 'CREATED',
+                    CURRENT_TIMESTAMP, DATEADD('DAY', 5, CURRENT_TIMESTAMP), 'LOW', 0
+                FROM SYSTEM_RANGE(1, ?)
+                """, TASKS);
+        // loads the index once, outside of the measurement
+        textIndex.search("w0");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> indexSearch() {
+        return textIndex.search(q);
+    }
+
+    @Benchmark
+    public List<Task> searchAllByFilter() {
+        return taskService.searchAllByFilter(TaskSearchFilter.builder().q(q).pageSize(20).pageNum(0).build());
+    }
+
+    // the query users ran outside the app, every row is scanned
+    @Benchmark
+    public List<Long> likeScan() {
+        String word = q.split(" ")[0];
+        return jdbcTemplate.queryForList("""
+                SELECT id FROM tasks
+                WHERE "task title" LIKE ? OR "task description" LIKE ?
+                ORDER BY id
+                LIMIT 20
+                """, Long.class, "%" + word + "%", "%" + word + "%");
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of a request body (@Valid on POST/PUT and every item of POST /tasks/batch).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Task validTask;
+    private Task invalidTask;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validTask = Task.builder()
+                .title("benchmark")
+                .creatorId(1L)
+                .assignedUserId(2L)
+                .deadLineDate(LocalDateTime.now().plusYears(1))
+                .priority(Priority.LOW)
+                .build();
+        invalidTask = Task.builder()
+                .title(" ")
+                .creatorId(-1L)
+                .deadLineDate(LocalDateTime.now().minusDays(1))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Task>> validateValidTask() {
+        return validator.validate(validTask);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Task>> validateInvalidTask() {
+        return validator.validate(invalidTask);
+    }
+}
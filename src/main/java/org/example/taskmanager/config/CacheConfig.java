@@ -0,0 +1,18 @@
+package org.example.taskmanager.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * The cache provider and its limits are configured with spring.cache.* properties (Caffeine by default).
+ * The caching advice runs outside the transaction advice, so evictions of a mutating
+ * method happen only after its transaction has committed and a read that starts after the commit sees the new row.
+ * A read that loaded the row before the commit can still put the old row back after the eviction,
+ * such an entry stays until expireAfterWrite (and with replicas until TaskCacheLagEvictor evicts it again),
+ * so cached tasks are stale for at most that long.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+}
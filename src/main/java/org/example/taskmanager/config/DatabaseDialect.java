@@ -0,0 +1,27 @@
+package org.example.taskmanager.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+/**
+ * The database the application runs on, read once from the Hibernate dialect.
+ * Native queries that PostgreSQL and the H2 test database write differently choose their SQL here.
+ */
+@Component
+public class DatabaseDialect {
+
+    private final boolean postgreSql;
+
+    public DatabaseDialect(EntityManagerFactory entityManagerFactory) {
+        this.postgreSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+
+
+    public boolean isPostgreSql() {
+        return postgreSql;
+    }
+}
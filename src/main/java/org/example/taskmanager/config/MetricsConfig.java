@@ -0,0 +1,27 @@
+package org.example.taskmanager.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.taskmanager.web.RequestQueryMetricsFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Endpoint latency comes from Spring MVC (http.server.requests), HikariCP and Hibernate meters from
+ * actuator auto-configuration. This adds the timers of methods annotated with @Timed and the SQL statement count
+ * per request, all of them are scraped from /actuator/prometheus,
+ * histograms are switched on with management.metrics.distribution.* properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public RequestQueryMetricsFilter requestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        return new RequestQueryMetricsFilter(meterRegistry);
+    }
+}
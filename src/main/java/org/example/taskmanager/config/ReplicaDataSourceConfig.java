@@ -0,0 +1,79 @@
+package org.example.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.taskmanager.web.ReadYourWritesFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, switched on by tasks.datasource.replicas.urls. Read-only transactions read from the replicas,
+ * everything else, including all writes and the flyway migrations, runs on spring.datasource.
+ * The connection is taken only when the first statement runs, by then the transaction is marked read-only
+ * and LazyConnectionDataSourceProxy asks the {@link ReplicaRoutingDataSource} instead of the primary.
+ * Every pool gets the spring.datasource.hikari.* settings, the replicas the credentials of the primary unless set.
+ */
+@Configuration
+@ConditionalOnProperty("tasks.datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${tasks.datasource.replicas.urls}") List<String> replicaUrls,
+                                 @Value("${tasks.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                 @Value("${tasks.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                 @Value("${tasks.datasource.replicas.retry-after:PT10S}") Duration retryAfter) {
+        HikariDataSource primary = pool(properties, environment, "tasks-primary",
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = pool(properties, environment, "tasks-replica-" + i, replicaUrls.get(i), username, password);
+            replica.setReadOnly(true);
+            // the primary pool is instrumented by actuator as the DataSource bean, the replica pools are not beans
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+
+        var dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicas, retryAfter));
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${tasks.datasource.replicas.max-lag:PT5S}") Duration maxLag) {
+        return new ReadYourWritesFilter(maxLag);
+    }
+
+
+    // the pool connects on its first use, an unreachable replica does not stop the application from starting
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String poolName,
+                                         String url, String username, String password) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(poolName);
+        return pool;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.taskmanager.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions: round robin over the read replicas that are up.
+ * A replica that fails to hand out a connection gets no reads for retryAfter and the next one is asked,
+ * with no replica up the primary serves the read. A thread pinned to the primary, e.g. a request of a client
+ * that has just changed tasks, always reads from the primary and sees its own writes.
+ * Used as the read-only data source of a LazyConnectionDataSourceProxy, which takes the connection from here
+ * when the transaction is read-only and the first statement runs.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration retryAfter;
+    private final Clock clock;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter) {
+        this(primary, replicas, retryAfter, Clock.systemUTC());
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter, Clock clock) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.retryAfter = retryAfter;
+        this.clock = clock;
+    }
+
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!isPinnedToPrimary() && !replicas.isEmpty()) {
+            long now = clock.millis();
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (replica.downUntil > now) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException | RuntimeException ex) {
+                    // RuntimeException: HikariCP fails the start of a pool with PoolInitializationException
+                    replica.downUntil = now + retryAfter.toMillis();
+                    log.warn("Read replica {} is down, its reads go elsewhere for {}: {}", replica.name, retryAfter, ex.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long downUntil;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
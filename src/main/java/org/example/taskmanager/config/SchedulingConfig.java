@@ -0,0 +1,12 @@
+package org.example.taskmanager.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs run on the Spring scheduler, their intervals are configured with tasks.* properties.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,189 @@
+package org.example.taskmanager.tasks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Hierarchical timing wheel of task deadlines. Scheduling and cancelling are O(1): a deadline goes into the slot
+ * of the finest wheel that spans it, deadlines further away go into coarser overflow wheels created on demand
+ * and move down to finer wheels as their slot comes due. Only non-empty slots are kept in a priority queue,
+ * so advancing the clock touches the due slots and never walks over empty ticks.
+ * Deadlines are rounded up to the next tick, a task never expires before its deadline.
+ * Not thread-safe, {@link TaskDeadlineScheduler} guards it with a lock.
+ */
+class DeadlineTimingWheel {
+
+    private final PriorityQueue<Bucket> dueBuckets = new PriorityQueue<>(Comparator.comparingLong(bucket -> bucket.expiration));
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final List<Entry> expiredOnSchedule = new ArrayList<>();
+    private final Wheel wheel;
+
+    DeadlineTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.wheel = new Wheel(tickMillis, wheelSize, startMillis);
+    }
+
+
+    /**
+     * Schedules the task, an earlier timer of the same task is replaced.
+     */
+    void schedule(Long taskId, long deadlineMillis) {
+        cancel(taskId);
+        var entry = new Entry(taskId, Math.ceilDiv(deadlineMillis, wheel.tick) * wheel.tick);
+        entries.put(taskId, entry);
+        if (!wheel.add(entry)) {
+            // already due, expires on the next advance
+            expiredOnSchedule.add(entry);
+        }
+    }
+
+
+    void scheduleIfAbsent(Long taskId, long deadlineMillis) {
+        if (!entries.containsKey(taskId)) {
+            schedule(taskId, deadlineMillis);
+        }
+    }
+
+
+    // the entry stays in its slot and is skipped when the slot comes due
+    void cancel(Long taskId) {
+        Entry entry = entries.remove(taskId);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+
+    boolean isScheduled(Long taskId) {
+        return entries.containsKey(taskId);
+    }
+
+
+    int size() {
+        return entries.size();
+    }
+
+
+    /**
+     * Moves the clock to now and returns the tasks whose deadline has passed, earliest first.
+     */
+    List<Long> advanceTo(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        for (Entry entry : expiredOnSchedule) {
+            expire(entry, expired);
+        }
+        expiredOnSchedule.clear();
+
+        Bucket bucket;
+        while ((bucket = dueBuckets.peek()) != null && bucket.expiration <= nowMillis) {
+            dueBuckets.poll();
+            wheel.advanceClock(bucket.expiration);
+            for (Entry entry : bucket.flush()) {
+                // entries of a coarse slot move down to a finer wheel, those of the finest wheel are due
+                if (!entry.cancelled && !wheel.add(entry)) {
+                    expire(entry, expired);
+                }
+            }
+        }
+        wheel.advanceClock(nowMillis);
+        return expired;
+    }
+
+
+    private void expire(Entry entry, List<Long> expired) {
+        if (!entry.cancelled) {
+            entries.remove(entry.taskId);
+            expired.add(entry.taskId);
+        }
+    }
+
+
+    private final class Wheel {
+
+        private final long tick;
+        private final int size;
+        private final long interval;
+        private final Bucket[] buckets;
+        private long currentTime;
+        private Wheel overflow;
+
+        private Wheel(long tick, int size, long startMillis) {
+            this.tick = tick;
+            this.size = size;
+            this.interval = tick * size;
+            this.buckets = new Bucket[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMillis - startMillis % tick;
+        }
+
+        // false when the entry is due already
+        private boolean add(Entry entry) {
+            if (entry.expiration < currentTime + tick) {
+                return false;
+            }
+            if (entry.expiration < currentTime + interval) {
+                long virtualId = entry.expiration / tick;
+                Bucket bucket = buckets[(int) (virtualId % size)];
+                bucket.entries.add(entry);
+                if (bucket.setExpiration(virtualId * tick)) {
+                    dueBuckets.add(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Wheel(interval, size, currentTime);
+            }
+            return overflow.add(entry);
+        }
+
+        private void advanceClock(long time) {
+            if (time >= currentTime + tick) {
+                currentTime = time - time % tick;
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+
+    private static final class Bucket {
+
+        private final List<Entry> entries = new ArrayList<>();
+        private long expiration = -1;
+
+        // true when the slot got a new expiration and has to be queued again
+        private boolean setExpiration(long expiration) {
+            if (this.expiration == expiration) {
+                return false;
+            }
+            this.expiration = expiration;
+            return true;
+        }
+
+        private List<Entry> flush() {
+            List<Entry> flushed = new ArrayList<>(entries);
+            entries.clear();
+            expiration = -1;
+            return flushed;
+        }
+    }
+
+
+    private static final class Entry {
+
+        private final Long taskId;
+        private final long expiration;
+        private boolean cancelled;
+
+        private Entry(Long taskId, long expiration) {
+            this.taskId = taskId;
+            this.expiration = expiration;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.taskmanager.tasks;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Stand-in sink until a broker is connected: appends every message as one NDJSON line
+ * {"id":..,"type":..,"taskId":..,"event":{..}} to a file. The file is forced to disk once per batch,
+ * so a batch removed from the outbox is never lost by a crash. Another sink is plugged in by setting
+ * tasks.outbox.sink to a different value and registering it as a {@link TaskEventSink} bean.
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileTaskEventSink implements TaskEventSink {
+
+    private final Path file;
+
+    public FileTaskEventSink(@Value("${tasks.outbox.file:task-events.ndjson}") Path file) {
+        this.file = file;
+    }
+
+
+    @Override
+    public synchronized void publish(List<TaskOutboxMessage> messages) {
+        var lines = new StringBuilder();
+        for (TaskOutboxMessage message : messages) {
+            // the payload already is JSON, it is embedded as it is instead of being escaped as a string
+            lines.append("{\"id\":").append(message.id())
+                    .append(",\"type\":\"").append(message.type().name())
+                    .append("\",\"taskId\":").append(message.taskId())
+                    .append(",\"event\":").append(message.payload())
+                    .append("}\n");
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write task events to " + file, ex);
+        }
+    }
+}
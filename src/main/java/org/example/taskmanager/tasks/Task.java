@@ -41,7 +41,10 @@ public record Task(
         Priority priority,
 
         @Null
-        LocalDateTime doneDataTime
+        LocalDateTime doneDataTime,
+
+        @Null
+        Long version
 
 )
 {
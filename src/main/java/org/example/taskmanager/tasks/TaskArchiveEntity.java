@@ -0,0 +1,78 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DONE task moved out of the tasks table by {@link TaskArchiver}, with the columns it had there.
+ * Rows are only inserted by the archiver and never changed.
+ * On PostgreSQL the table is range-partitioned by month of the done date, see the flyway migration.
+ */
+@Table(name = "tasks_archive")
+@Entity
+@Immutable
+public class TaskArchiveEntity {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "task title", nullable = false)
+    private String title;
+
+    @Column(name = "task description")
+    private String description;
+
+    @Column(name = "creator id", nullable = false)
+    private Long creatorId;
+
+    @Column(name = "assigned user id", nullable = false)
+    private Long assignedUserId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "create date and time", nullable = false)
+    private LocalDateTime createDateTime;
+
+    @Column(name = "dead line date and time", nullable = false)
+    private LocalDateTime deadLineDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", nullable = false)
+    private Priority priority;
+
+    @Column(name = "done date and time", nullable = false)
+    private LocalDateTime doneDataTime;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+
+
+    public TaskArchiveEntity() {
+    }
+
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getAssignedUserId() {
+        return assignedUserId;
+    }
+
+    public LocalDateTime getDoneDataTime() {
+        return doneDataTime;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
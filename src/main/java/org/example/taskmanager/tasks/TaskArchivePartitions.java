@@ -0,0 +1,16 @@
+package org.example.taskmanager.tasks;
+
+import java.time.YearMonth;
+
+/**
+ * Monthly partitions of tasks_archive. The archiver creates them before it moves tasks done in those months,
+ * a row without a partition for its done date could not be inserted.
+ */
+public interface TaskArchivePartitions {
+
+    /**
+     * Creates the missing partitions for the months from first to last, both included.
+     * Does nothing when the database is not PostgreSQL, there tasks_archive is a plain table.
+     */
+    void createMonthlyPartitions(YearMonth first, YearMonth last);
+}
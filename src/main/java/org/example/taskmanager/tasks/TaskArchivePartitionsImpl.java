@@ -0,0 +1,37 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.taskmanager.config.DatabaseDialect;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.YearMonth;
+
+class TaskArchivePartitionsImpl implements TaskArchivePartitions {
+
+    // partition names and bounds are built from YearMonth values only, never from input
+    private static final String POSTGRESQL_CREATE_PARTITION = """
+            CREATE TABLE IF NOT EXISTS tasks_archive_%1$04d_%2$02d
+            PARTITION OF tasks_archive
+            FOR VALUES FROM ('%3$s-01') TO ('%4$s-01')
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+
+    @Override
+    public void createMonthlyPartitions(YearMonth first, YearMonth last) {
+        if (!databaseDialect.isPostgreSql()) {
+            return;
+        }
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            entityManager.createNativeQuery(POSTGRESQL_CREATE_PARTITION.formatted(
+                            month.getYear(), month.getMonthValue(), month, month.plusMonths(1)))
+                    .executeUpdate();
+        }
+    }
+}
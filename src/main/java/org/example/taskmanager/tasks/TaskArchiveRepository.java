@@ -0,0 +1,41 @@
+package org.example.taskmanager.tasks;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface TaskArchiveRepository extends JpaRepository<TaskArchiveEntity, Long>, TaskArchivePartitions {
+
+
+    // the done date is not known, so on PostgreSQL every monthly partition is probed through its primary key index
+    @Query("""
+            SELECT new org.example.taskmanager.tasks.Task(a.id, a.title, a.description, a.creatorId, a.assignedUserId,
+                a.status, a.createDateTime, a.deadLineDate, a.priority, a.doneDataTime, a.version)
+            FROM TaskArchiveEntity a
+            WHERE a.id = :id
+            """)
+    Optional<Task> findTaskById(@Param("id") Long id);
+
+
+    /**
+     * Copies the given tasks into the archive with one INSERT ... SELECT, the rows are not loaded.
+     * The tasks must be locked by the caller and deleted in the same transaction.
+     */
+    @Modifying
+    @Query("""
+            INSERT INTO TaskArchiveEntity (id, title, description, creatorId, assignedUserId, status,
+                createDateTime, deadLineDate, priority, doneDataTime, version, archivedAt)
+            SELECT t.id, t.title, t.description, t.creatorId, t.assignedUserId, t.status,
+                t.createDateTime, t.deadLineDate, t.priority, t.doneDataTime, t.version, :archivedAt
+            FROM TaskEntity t
+            WHERE t.id IN :ids
+            """)
+    int copyFromTasks(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,12 @@
+package org.example.taskmanager.tasks;
+
+/**
+ * Thrown when a task that was moved to the archive is changed or deleted. Archived tasks stay readable by id
+ * but are read-only, so the request conflicts with the state of the task instead of naming a missing one.
+ */
+public class TaskArchivedException extends IllegalStateException {
+
+    public TaskArchivedException(Long id) {
+        super("Task id = " + id + " is archived and cannot be changed");
+    }
+}
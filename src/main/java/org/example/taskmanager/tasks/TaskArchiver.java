@@ -0,0 +1,112 @@
+package org.example.taskmanager.tasks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Moves DONE tasks whose done date is older than tasks.archive.after from the tasks table into tasks_archive,
+ * so the tasks table and its indexes only hold open and recently done tasks.
+ * Every batch is locked, copied by one INSERT ... SELECT and removed by one DELETE in its own transaction,
+ * the tasks are never loaded. GET /tasks/{id} falls back to the archive, lists, filters and exports only read tasks.
+ * Archived tasks are taken off the per-user counters like deleted ones, so the counters and their reconciliation
+ * keep covering the tasks table only. No task event is published, the task itself did not change.
+ */
+@Component
+public class TaskArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskArchiveRepository archiveRepository;
+    private final UserTaskCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration after;
+    private final int batchSize;
+
+    public TaskArchiver(TaskRepository taskRepository, TaskArchiveRepository archiveRepository,
+                        UserTaskCounterRepository counterRepository, PlatformTransactionManager transactionManager,
+                        @Value("${tasks.archive.after:P90D}") Duration after,
+                        @Value("${tasks.archive.batch-size:1000}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.archiveRepository = archiveRepository;
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.after = after;
+        this.batchSize = batchSize;
+    }
+
+
+    /**
+     * Archives all tasks that were done before now minus tasks.archive.after and returns their number.
+     */
+    @Scheduled(
+            initialDelayString = "${tasks.archive.interval:PT1H}",
+            fixedDelayString = "${tasks.archive.interval:PT1H}")
+    public int archive() {
+        LocalDateTime doneBefore = LocalDateTime.now().minus(after);
+        int archived = 0;
+        try {
+            var oldest = taskRepository.findOldestDoneDateBefore(doneBefore);
+            if (oldest.isEmpty()) {
+                return 0;
+            }
+            // the partitions are created up front in a short transaction of their own, creating one locks tasks_archive
+            transactionTemplate.executeWithoutResult(status ->
+                    archiveRepository.createMonthlyPartitions(YearMonth.from(oldest.get()), YearMonth.from(doneBefore)));
+
+            var filter = TaskSearchFilter.builder()
+                    .status(Status.DONE)
+                    .doneTo(doneBefore)
+                    .build();
+            var now = LocalDateTime.now();
+            Long afterId = 0L;
+            ArchivedBatch batch;
+            while ((batch = archiveBatch(filter, afterId, now)) != null) {
+                archived += batch.archived();
+                afterId = batch.lastId();
+            }
+        } catch (RuntimeException ex) {
+            // the committed batches stay archived, the rest is moved on the next run
+            log.warn("Archiving of DONE tasks failed after {} tasks: {}", archived, ex.getMessage());
+        }
+        if (archived > 0) {
+            log.info("{} tasks done before {} archived", archived, doneBefore);
+        }
+        return archived;
+    }
+
+
+    // one transaction: the rows stay locked from the SELECT until they are deleted, so every copied row is deleted
+    private ArchivedBatch archiveBatch(TaskSearchFilter filter, Long afterId, LocalDateTime now) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = taskRepository.lockIdsByFilterAfterId(filter, afterId, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                return null;
+            }
+            archiveRepository.copyFromTasks(ids, now);
+            List<Task> moved = taskRepository.deleteAllReturning(ids);
+
+            // users in ascending order, the order every transition locks the counter rows in
+            moved.stream()
+                    .collect(Collectors.groupingBy(Task::assignedUserId, TreeMap::new, Collectors.counting()))
+                    .forEach((assignedUserId, count) -> counterRepository.add(assignedUserId, Status.DONE, -count));
+            return new ArchivedBatch(ids.get(ids.size() - 1), moved.size());
+        });
+    }
+
+
+    private record ArchivedBatch(Long lastId, int archived) {}
+}
@@ -0,0 +1,16 @@
+package org.example.taskmanager.tasks;
+
+public record TaskBatchResult(
+        int index,
+        Task task,
+        String error
+) {
+
+    public static TaskBatchResult created(int index, Task task) {
+        return new TaskBatchResult(index, task, null);
+    }
+
+    public static TaskBatchResult rejected(int index, String error) {
+        return new TaskBatchResult(index, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.taskmanager.tasks;
+
+import java.util.List;
+
+/**
+ * Body of DELETE /tasks: the tasks are given either by their ids or by a filter, not both.
+ * A filter must contain at least one condition, e.g. status DONE and doneTo for the tasks done before a date.
+ */
+public record TaskBulkDeleteRequest(
+
+        List<Long> ids,
+
+        TaskSearchFilter filter
+) {}
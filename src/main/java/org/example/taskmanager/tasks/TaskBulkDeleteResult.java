@@ -0,0 +1,8 @@
+package org.example.taskmanager.tasks;
+
+import java.util.List;
+
+/**
+ * deleted is the number of deleted tasks, notFound the requested ids that did not exist. A filter has no notFound ids.
+ */
+public record TaskBulkDeleteResult(long deleted, List<Long> notFound) {}
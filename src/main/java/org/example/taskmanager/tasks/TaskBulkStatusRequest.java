@@ -0,0 +1,18 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Body of POST /tasks/bulk/status: the tasks are given either by their ids or by a filter, not both.
+ */
+public record TaskBulkStatusRequest(
+
+        List<Long> ids,
+
+        TaskSearchFilter filter,
+
+        @NotNull
+        Status status
+) {}
@@ -0,0 +1,42 @@
+package org.example.taskmanager.tasks;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * With read replicas, a getTaskById right after a change can still read the old row from a replica
+ * and put it into the task cache again after the change evicted it. Every changed task is evicted
+ * once more when tasks.datasource.replicas.max-lag has passed and the replicas have caught up.
+ */
+@Component
+@ConditionalOnProperty("tasks.datasource.replicas.urls")
+public class TaskCacheLagEvictor {
+
+    private final CacheManager cacheManager;
+    private final TaskScheduler taskScheduler;
+    private final Duration maxLag;
+
+    public TaskCacheLagEvictor(CacheManager cacheManager, TaskScheduler taskScheduler,
+                               @Value("${tasks.datasource.replicas.max-lag:PT5S}") Duration maxLag) {
+        this.cacheManager = cacheManager;
+        this.taskScheduler = taskScheduler;
+        this.maxLag = maxLag;
+    }
+
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        Cache cache = cacheManager.getCache(TaskService.TASK_CACHE);
+        if (cache != null) {
+            taskScheduler.schedule(() -> cache.evict(event.taskId()), Instant.now().plus(maxLag));
+        }
+    }
+}
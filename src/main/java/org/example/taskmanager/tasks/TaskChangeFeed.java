@@ -0,0 +1,213 @@
+package org.example.taskmanager.tasks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of {@link TaskChangedEvent}s to the SSE subscribers of GET /tasks/stream.
+ * The changes of a transaction are handed over after its commit as one batch, so a bulk endpoint
+ * changing 10 000 tasks costs one queue offer per subscriber on the committing thread. Every subscriber
+ * has a bounded queue of batches drained by its own virtual thread, which filters the batch and writes it
+ * to the client, so publishing never waits for a client connection. When the queue of a subscriber is full
+ * the batch is dropped and the subscriber gets a single RESYNC event instead of the queued changes,
+ * the client reloads its current state and keeps streaming on the same connection.
+ */
+@Component
+public class TaskChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskChangeFeed.class);
+
+    static final Map<String, String> RESYNC = Map.of("type", "RESYNC");
+
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // reserved before a subscriber is added, so concurrent subscribes cannot pass maxSubscribers
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public TaskChangeFeed(@Value("${tasks.stream.queue-capacity:256}") int queueCapacity,
+                          @Value("${tasks.stream.max-subscribers:10000}") int maxSubscribers,
+                          @Value("${tasks.stream.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+                          @Value("${tasks.stream.timeout:PT30M}") Duration timeout) {
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatInterval = heartbeatInterval;
+        this.timeout = timeout;
+    }
+
+
+    /**
+     * Streams changes of the tasks assigned to the user, or of all tasks when assignedUserId is null.
+     */
+    public SseEmitter subscribe(Long assignedUserId) {
+        return subscribe(assignedUserId, new SseEmitter(timeout.toMillis()));
+    }
+
+
+    SseEmitter subscribe(Long assignedUserId, SseEmitter emitter) {
+        int count;
+        do {
+            count = subscriberCount.get();
+            if (count >= maxSubscribers) {
+                throw new IllegalStateException("Task stream already has " + maxSubscribers + " subscribers, try again later");
+            }
+        } while (!subscriberCount.compareAndSet(count, count + 1));
+        var subscriber = new Subscriber(assignedUserId, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.sender.start();
+        return emitter;
+    }
+
+
+    // collected until the commit, so rolled back changes are never streamed and a transaction is published once
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(event));
+            return;
+        }
+        changesOfCurrentTransaction().events.add(event);
+    }
+
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+
+    // bound to the transaction like a JDBC connection, looked up once per event without scanning the synchronizations
+    private TransactionChanges changesOfCurrentTransaction() {
+        var changes = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new TransactionChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+
+    private void publish(List<TaskChangedEvent> events) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(events) && !subscriber.overflowed.getAndSet(true)) {
+                log.warn("Task stream subscriber for user ID {} is too slow, {} transactions queued, sending it a resync",
+                        subscriber.assignedUserId, queueCapacity);
+            }
+        }
+    }
+
+
+    private void send(Subscriber subscriber) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (subscriber.overflowed.getAndSet(false)) {
+                    // the client reloads its state after the resync, the queued changes are part of it
+                    subscriber.queue.clear();
+                    subscriber.emitter.send(SseEmitter.event().name("RESYNC").data(RESYNC, MediaType.APPLICATION_JSON));
+                    continue;
+                }
+                List<TaskChangedEvent> events = subscriber.queue.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (events == null) {
+                    // keeps proxies from closing an idle connection and finds clients that are gone
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                for (TaskChangedEvent event : events) {
+                    if (subscriber.accepts(event)) {
+                        subscriber.emitter.send(SseEmitter.event()
+                                .name(event.type().name())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            // removed from the feed
+        } catch (IOException | IllegalStateException ex) {
+            // the client disconnected or the emitter was completed
+            remove(subscriber);
+        }
+    }
+
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            subscriber.sender.interrupt();
+        }
+    }
+
+
+    // the changes of one transaction, published as one batch after its commit.
+    // Unbound while the transaction is suspended, so an inner REQUIRES_NEW transaction collects its own changes
+    private final class TransactionChanges implements TransactionSynchronization {
+
+        private final List<TaskChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TaskChangeFeed.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TaskChangeFeed.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            publish(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TaskChangeFeed.this);
+        }
+    }
+
+
+    private final class Subscriber {
+
+        private final Long assignedUserId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<List<TaskChangedEvent>> queue;
+        private final Thread sender;
+        // set by the publisher when a batch did not fit into the queue, cleared by the sender when it sends the resync
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+
+        private Subscriber(Long assignedUserId, SseEmitter emitter, BlockingQueue<List<TaskChangedEvent>> queue) {
+            this.assignedUserId = assignedUserId;
+            this.emitter = emitter;
+            this.queue = queue;
+            this.sender = Thread.ofVirtual().name("task-stream-" + assignedUserId).unstarted(() -> send(this));
+        }
+
+        private boolean accepts(TaskChangedEvent event) {
+            return assignedUserId == null || event.concernsUser(assignedUserId);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.taskmanager.tasks;
+
+/**
+ * Published by {@link TaskService} inside the transaction of every change of a task.
+ * It is written to the outbox before the commit and streamed to GET /tasks/stream after it.
+ * previousAssignedUserId is set when the task was reassigned, so the old assignee's view can drop it.
+ */
+public record TaskChangedEvent(
+        Type type,
+        Long taskId,
+        Long assignedUserId,
+        Long previousAssignedUserId,
+        Task task
+) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    public static TaskChangedEvent created(Task task) {
+        return new TaskChangedEvent(Type.CREATED, task.id(), task.assignedUserId(), null, task);
+    }
+
+    public static TaskChangedEvent updated(Task task, Long previousAssignedUserId) {
+        Long reassignedFrom = previousAssignedUserId.equals(task.assignedUserId()) ? null : previousAssignedUserId;
+        return new TaskChangedEvent(Type.UPDATED, task.id(), task.assignedUserId(), reassignedFrom, task);
+    }
+
+    public static TaskChangedEvent statusChanged(Task task) {
+        return new TaskChangedEvent(Type.STATUS_CHANGED, task.id(), task.assignedUserId(), null, task);
+    }
+
+    public static TaskChangedEvent deleted(Task task) {
+        return new TaskChangedEvent(Type.DELETED, task.id(), task.assignedUserId(), null, task);
+    }
+
+    boolean concernsUser(Long userId) {
+        return userId.equals(assignedUserId) || userId.equals(previousAssignedUserId);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.taskmanager.tasks;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Completes or starts a task with one conditional UPDATE that also returns the changed row,
+ * instead of reading the task, copying it and saving it back.
+ */
+public interface TaskCompletionRepository {
+
+    /**
+     * Switches the task to DONE if it exists and is not DONE yet.
+     * Empty when no row was updated, concurrent completions of the same task update it only once.
+     */
+    Optional<TaskStatusChange> completeTask(Long id, LocalDateTime doneDateTime);
+
+    /**
+     * Switches the task to IN_PROGRESS if it exists and is not IN_PROGRESS yet, the done date is kept.
+     * Empty when no row was updated, concurrent starts of the same task update it only once.
+     */
+    Optional<TaskStatusChange> startTask(Long id);
+}
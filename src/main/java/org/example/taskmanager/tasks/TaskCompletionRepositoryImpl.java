@@ -0,0 +1,112 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.taskmanager.config.DatabaseDialect;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+class TaskCompletionRepositoryImpl implements TaskCompletionRepository {
+
+    // the CTE locks the row and keeps its old status, the UPDATE returns the new row together with it
+    private static final String POSTGRESQL_CHANGE_STATUS = """
+            WITH previous AS (
+                SELECT id, status FROM tasks
+                WHERE id = :id AND status <> :status
+                FOR UPDATE
+            )
+            UPDATE tasks t
+            SET status = :status, %s version = t.version + 1
+            FROM previous p
+            WHERE t.id = p.id
+            RETURNING t.id AS id, t."task title" AS title, t."task description" AS description,
+                t."creator id" AS creator_id, t."assigned user id" AS assigned_user_id,
+                t."create date and time" AS create_date_time, t."dead line date and time" AS dead_line_date,
+                t.priority AS priority, t."done date and time" AS done_date_time, t.version AS version,
+                p.status AS previous_status
+            """;
+
+    // H2 has no UPDATE ... RETURNING, its data change delta table returns the row as it was before the update
+    private static final String H2_CHANGE_STATUS = """
+            SELECT id, "task title" AS title, "task description" AS description,
+                "creator id" AS creator_id, "assigned user id" AS assigned_user_id,
+                "create date and time" AS create_date_time, "dead line date and time" AS dead_line_date,
+                priority, "done date and time" AS done_date_time, version + 1 AS version, status AS previous_status
+            FROM OLD TABLE (
+                UPDATE tasks
+                SET status = :status, %s version = version + 1
+                WHERE id = :id AND status <> :status
+            )
+            """;
+
+    private static final String SET_DONE_DATE = "\"done date and time\" = :doneDateTime,";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+
+    @Override
+    public Optional<TaskStatusChange> completeTask(Long id, LocalDateTime doneDateTime) {
+        return changeStatus(id, Status.DONE, doneDateTime);
+    }
+
+
+    @Override
+    public Optional<TaskStatusChange> startTask(Long id) {
+        return changeStatus(id, Status.IN_PROGRESS, null);
+    }
+
+
+    // doneDateTime is written only when it is given, otherwise the row keeps its done date
+    @SuppressWarnings("unchecked")
+    private Optional<TaskStatusChange> changeStatus(Long id, Status status, LocalDateTime doneDateTime) {
+        String sql = (databaseDialect.isPostgreSql() ? POSTGRESQL_CHANGE_STATUS : H2_CHANGE_STATUS)
+                .formatted(doneDateTime != null ? SET_DONE_DATE : "");
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TaskEntity.class)
+                .addScalar("id", Long.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("creator_id", Long.class)
+                .addScalar("assigned_user_id", Long.class)
+                .addScalar("create_date_time", LocalDateTime.class)
+                .addScalar("dead_line_date", LocalDateTime.class)
+                .addScalar("priority", String.class)
+                .addScalar("done_date_time", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .addScalar("previous_status", String.class)
+                .setParameter("id", id)
+                .setParameter("status", status.name());
+        if (doneDateTime != null) {
+            query.setParameter("doneDateTime", doneDateTime);
+        }
+        List<Object[]> rows = query.getResultList();
+
+        return rows.stream()
+                .findFirst()
+                .map(row -> {
+                    var task = new TaskEntity(
+                            (Long) row[0],
+                            (String) row[1],
+                            (String) row[2],
+                            (Long) row[3],
+                            (Long) row[4],
+                            status,
+                            (LocalDateTime) row[5],
+                            (LocalDateTime) row[6],
+                            Priority.valueOf((String) row[7]),
+                            // H2 returns the old row, the done date written by the UPDATE is the given one
+                            doneDateTime != null ? doneDateTime : (LocalDateTime) row[8]);
+                    task.setVersion((Long) row[9]);
+                    return new TaskStatusChange(task, Status.valueOf((String) row[10]));
+                });
+    }
+}
@@ -1,16 +1,28 @@
 package org.example.taskmanager.tasks;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 
 @RestController
@@ -20,15 +32,20 @@ public class TaskController {
     private static final Logger log = LoggerFactory.getLogger(TaskController.class);
 
     private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final TaskChangeFeed taskChangeFeed;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, ObjectMapper objectMapper, TaskChangeFeed taskChangeFeed) {
         this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.taskChangeFeed = taskChangeFeed;
     }
 
+    // a matching If-None-Match is answered with 304 and no body by Spring MVC, based on the ETag set here
     @GetMapping("/{id}")
     public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
         log.info("getTaskById method called with id = {}", id);
-        return ResponseEntity.ok(taskService.getTaskById(id));
+        return withETag(taskService.getTaskById(id));
     }
 
     @GetMapping
@@ -42,6 +59,15 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getAllTasks(pageable));
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<TaskCursorPage> getAllTasksByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        log.info("getAllTasksByCursor method called");
+        return ResponseEntity.ok(taskService.getAllTasksAfter(cursor, size));
+    }
+
     @PostMapping
     public ResponseEntity<Task> createNewTask(@RequestBody @Valid Task taskToCreate) {
         log.info("createNewTask method called");
@@ -49,15 +75,32 @@ public class TaskController {
                 .body(taskService.createNewTask(taskToCreate));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskBatchResult>> createNewTasks(@RequestBody List<Task> tasksToCreate) {
+        log.info("createNewTasks method called with {} tasks", tasksToCreate.size());
+        return ResponseEntity.ok(taskService.createNewTasks(tasksToCreate));
+    }
+
 
     @PutMapping("/{id}")
     public ResponseEntity<Task> editTask(
             @PathVariable("id") Long id,
-            @RequestBody @Valid Task taskToEdit
+            @RequestBody @Valid Task taskToEdit,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         log.info("editTask method called: id={}, taskToEdit={}", id, taskToEdit);
-        var updatedTask = taskService.editTask(id, taskToEdit);
-        return ResponseEntity.ok(updatedTask);
+        var updatedTask = taskService.editTask(id, taskToEdit, versionsFromIfMatch(ifMatch));
+        return withETag(updatedTask);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Task> patchTask(
+            @PathVariable("id") Long id,
+            @RequestBody @Valid TaskPatch patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.info("patchTask method called: id={}, patch={}", id, patch);
+        return withETag(taskService.patchTask(id, patch, versionsFromIfMatch(ifMatch)));
     }
 
     @DeleteMapping("/{id}")
@@ -69,6 +112,20 @@ public class TaskController {
     }
 
 
+    @DeleteMapping
+    public ResponseEntity<TaskBulkDeleteResult> deleteTasks(@RequestBody TaskBulkDeleteRequest request) {
+        log.info("deleteTasks method called");
+        return ResponseEntity.ok(taskService.deleteTasks(request));
+    }
+
+
+    @PostMapping("/bulk/status")
+    public ResponseEntity<List<TaskStatusResult>> changeStatuses(@RequestBody @Valid TaskBulkStatusRequest request) {
+        log.info("changeStatuses method called: status={}", request.status());
+        return ResponseEntity.ok(taskService.changeStatuses(request));
+    }
+
+
     @PostMapping("/{id}/start")
     public ResponseEntity<String> switchTaskToInProgress(@PathVariable Long id) {
         log.info("switchTaskToInProgress method called with ID: " + id);
@@ -83,6 +140,12 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getAllTasksOfOneAssignedUser(assignedUserId));
     }
 
+    @GetMapping("/user/{assignedUserId}/stats")
+    public ResponseEntity<UserTaskStats> getUserTaskStats(@PathVariable Long assignedUserId) {
+        log.info("getUserTaskStats method called with assignedUserId = {}", assignedUserId);
+        return ResponseEntity.ok(taskService.getUserTaskStats(assignedUserId));
+    }
+
     @PostMapping("/{id}/complete")
     public ResponseEntity<Task> getTaskDone(@PathVariable Long id) {
         log.info("getTaskDone method called with ID: " + id);
@@ -90,21 +153,96 @@ public class TaskController {
     }
 
 
+    // the filter fields and pageSize/pageNum are bound from the query parameters of the same names
     @GetMapping("/filter")
-    public ResponseEntity<List<Task>> searchAllByFilter(
-            @RequestParam (name = "creatorId", required = false) Long creatorId,
-            @RequestParam (name = "assignedUserId",required = false) Long assignedUserId,
-            @RequestParam (name = "status", required = false) Status status,
-            @RequestParam (name = "priority", required = false) Priority priority,
-            @RequestParam (name = "pageSize", required = false) Integer pageSize,
-            @RequestParam (name = "pageNum", required = false) Integer pageNum
-    ) {
+    public ResponseEntity<List<Task>> searchAllByFilter(@ModelAttribute TaskSearchFilter filter) {
         log.info("searchAllByFilter method called");
-        var filter = new TaskSearchFilter(creatorId, assignedUserId, status, priority, pageSize, pageNum);
-
         return ResponseEntity.ok(taskService.searchAllByFilter(filter));
     }
 
 
-}
+    @GetMapping(value = "/filter", params = "cursor")
+    public ResponseEntity<TaskCursorPage> searchAllByFilterAndCursor(
+            @ModelAttribute TaskSearchFilter filter,
+            @RequestParam (name = "cursor") String cursor
+    ) {
+        log.info("searchAllByFilterAndCursor method called");
+        return ResponseEntity.ok(taskService.searchAllByFilterAfter(filter, cursor));
+    }
+
+
+    @GetMapping("/overdue")
+    public ResponseEntity<TaskCursorPage> getOverdueTasks(
+            @RequestParam (name = "assignedUserId", required = false) Long assignedUserId,
+            @RequestParam (name = "cursor", required = false) String cursor,
+            @RequestParam (name = "size", defaultValue = "10") int size
+    ) {
+        log.info("getOverdueTasks method called with assignedUserId = {}", assignedUserId);
+        return ResponseEntity.ok(taskService.getOverdueTasksAfter(assignedUserId, cursor, size));
+    }
+
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskChanges(
+            @RequestParam (name = "assignedUserId", required = false) Long assignedUserId
+    ) {
+        log.info("streamTaskChanges method called with assignedUserId = {}", assignedUserId);
+        return taskChangeFeed.subscribe(assignedUserId);
+    }
+
+
+    @GetMapping("/export")
+    public void exportTasks(
+            @ModelAttribute TaskSearchFilter filter,
+            @RequestParam (name = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("exportTasks method called with format = {}", format);
+        var exportFormat = TaskExportFormat.from(format);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tasks." + exportFormat.getFileExtension());
+
+        // not response.getWriter(): that PrintWriter swallows the IOException of a client that went away
+        var out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        var writer = new TaskExportWriter(exportFormat, out, objectMapper);
+        writer.writeHeader();
+        taskService.exportTasks(filter, writer);
+        writer.flush();
+    }
+
+
+    // the ETag of a task is its version
+    private static ResponseEntity<Task> withETag(Task task) {
+        var response = ResponseEntity.ok();
+        if (task.version() != null) {
+            response.eTag(String.valueOf(task.version()));
+        }
+        return response.body(task);
+    }
+
+    // If-Match: "3" -> [3], "2", "3" -> [2, 3] (any may match), no header or * -> null (unconditional).
+    // If-Match compares strongly, a weak W/"3" never matches: a header of weak tags only fails right away
+    private static Set<Long> versionsFromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String element : ifMatch.split(",")) {
+            String tag = element.trim();
+            if (tag.isEmpty() || tag.startsWith("W/")) {
+                continue;
+            }
+            try {
+                versions.add(Long.valueOf(tag.replace("\"", "")));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new OptimisticLockingFailureException("If-Match contains no strong entity tag: " + ifMatch);
+        }
+        return versions;
+    }
+}
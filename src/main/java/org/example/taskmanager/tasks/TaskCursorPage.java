@@ -0,0 +1,8 @@
+package org.example.taskmanager.tasks;
+
+import java.util.List;
+
+public record TaskCursorPage(
+        List<Task> content,
+        String nextCursor
+) {}
@@ -0,0 +1,44 @@
+package org.example.taskmanager.tasks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for pages ordered by deadline, wraps the deadline and id of the last task
+ * of the previous page. An empty token means "start from the earliest deadline", decoded as null.
+ */
+public record TaskDeadlineCursor(
+        LocalDateTime deadLineDate,
+        Long id
+) {
+
+    private static final String PREFIX = "deadline:";
+    private static final String SEPARATOR = "|";
+
+    public static String encode(LocalDateTime deadLineDate, Long lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + deadLineDate + SEPARATOR + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskDeadlineCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            if (!decoded.startsWith(PREFIX) || separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new TaskDeadlineCursor(
+                    LocalDateTime.parse(decoded.substring(PREFIX.length(), separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
+    }
+}
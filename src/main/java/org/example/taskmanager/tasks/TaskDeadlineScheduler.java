@@ -0,0 +1,166 @@
+package org.example.taskmanager.tasks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes a {@link TaskOverdueEvent} when an open task passes its deadline, without polling the tasks table.
+ * Only the deadlines of the next window are held in a {@link DeadlineTimingWheel}, the window is loaded from the
+ * partial deadline index in keyset batches when half of it has passed. Changes committed by this instance
+ * reschedule or cancel the timer right away. Expired timers are claimed in the database with one conditional UPDATE
+ * before the events are published, so changes made by other instances never cause a wrong notification.
+ * Every instance runs its own scheduler, the claim lets only one of them report each overdue task.
+ * Deadlines that passed while no instance was running are not reported, GET /tasks/overdue lists them.
+ */
+@Component
+public class TaskDeadlineScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskDeadlineScheduler.class);
+
+    // 1 second ticks, 60 slots per wheel: 1 minute, 1 hour, 2.5 days, ...
+    static final long TICK_MILLIS = 1000;
+    static final int WHEEL_SIZE = 60;
+    private static final int CHECK_BATCH_SIZE = 1000;
+
+    private final TaskRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration window;
+    private final int loadBatchSize;
+    private final DeadlineTimingWheel wheel;
+    // deadlines before this are held in the wheel, later ones are loaded with the next window
+    private LocalDateTime loadedUntil;
+
+    @Autowired
+    public TaskDeadlineScheduler(TaskRepository taskRepository, ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${tasks.deadlines.window:PT1H}") Duration window,
+                                 @Value("${tasks.deadlines.load-batch-size:1000}") int loadBatchSize) {
+        this(taskRepository, eventPublisher, transactionManager, Clock.systemDefaultZone(), window, loadBatchSize);
+    }
+
+    TaskDeadlineScheduler(TaskRepository taskRepository, ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager, Clock clock, Duration window, int loadBatchSize) {
+        this.taskRepository = taskRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.window = window;
+        this.loadBatchSize = loadBatchSize;
+        this.wheel = new DeadlineTimingWheel(TICK_MILLIS, WHEEL_SIZE, clock.millis());
+        this.loadedUntil = LocalDateTime.now(clock);
+    }
+
+
+    @Scheduled(fixedDelayString = "${tasks.deadlines.tick-interval:PT1S}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (!getLoadedUntil().isAfter(now.plus(window.dividedBy(2)))) {
+            loadWindow(now.plus(window));
+        }
+        List<Long> expired;
+        synchronized (wheel) {
+            expired = wheel.advanceTo(toMillis(now));
+        }
+        if (!expired.isEmpty()) {
+            publishOverdue(expired, now);
+        }
+    }
+
+
+    // after commit only, a rolled back edit keeps the old timer
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Task task = event.task();
+        synchronized (wheel) {
+            switch (event.type()) {
+                case DELETED -> wheel.cancel(event.taskId());
+                case STATUS_CHANGED -> {
+                    if (task.status() == Status.DONE) {
+                        wheel.cancel(event.taskId());
+                    }
+                }
+                case CREATED, UPDATED -> {
+                    if (task.deadLineDate().isBefore(loadedUntil) && task.deadLineDate().isAfter(LocalDateTime.now(clock))) {
+                        wheel.schedule(event.taskId(), toMillis(task.deadLineDate()));
+                    } else {
+                        // moved out of the loaded window, the window load picks it up again
+                        wheel.cancel(event.taskId());
+                    }
+                }
+            }
+        }
+    }
+
+
+    int scheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+
+    private void loadWindow(LocalDateTime until) {
+        TaskDeadlineCursor after;
+        synchronized (wheel) {
+            // moved first, so a task created while loading is scheduled by its event even if the load misses it
+            after = new TaskDeadlineCursor(loadedUntil, 0L);
+            loadedUntil = until;
+        }
+        int loaded = 0;
+        List<Task> batch;
+        do {
+            batch = taskRepository.findOpenWithDeadlineBefore(null, until, after, Limit.of(loadBatchSize));
+            synchronized (wheel) {
+                // a timer set by an event is newer than the row read here
+                batch.forEach(task -> wheel.scheduleIfAbsent(task.id(), toMillis(task.deadLineDate())));
+            }
+            if (!batch.isEmpty()) {
+                Task last = batch.get(batch.size() - 1);
+                after = new TaskDeadlineCursor(last.deadLineDate(), last.id());
+            }
+            loaded += batch.size();
+        } while (batch.size() == loadBatchSize);
+        log.info("{} task deadlines until {} scheduled", loaded, until);
+    }
+
+
+    // the claim is committed before the events are published, another instance claiming the same tasks gets none of them
+    private void publishOverdue(List<Long> expired, LocalDateTime now) {
+        int published = 0;
+        for (int from = 0; from < expired.size(); from += CHECK_BATCH_SIZE) {
+            List<Long> ids = expired.subList(from, Math.min(from + CHECK_BATCH_SIZE, expired.size()));
+            List<TaskOverdueEvent> claimed = transactionTemplate.execute(status -> taskRepository.claimOverdueByIds(ids, now));
+            claimed.forEach(eventPublisher::publishEvent);
+            published += claimed.size();
+        }
+        log.info("{} tasks passed their deadline", published);
+    }
+
+
+    private LocalDateTime getLoadedUntil() {
+        synchronized (wheel) {
+            return loadedUntil;
+        }
+    }
+
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.taskmanager.tasks;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Deletes tasks with one set-based DELETE that also returns the deleted rows,
+ * instead of loading every entity and removing it one by one.
+ */
+public interface TaskDeletionRepository {
+
+    /**
+     * Deletes the tasks with the given ids and returns them as they were before the DELETE.
+     * Ids that do not exist are skipped, concurrent deletes of the same task return it only once.
+     */
+    List<Task> deleteAllReturning(Collection<Long> ids);
+}
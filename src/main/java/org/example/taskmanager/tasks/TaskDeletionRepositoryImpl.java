@@ -0,0 +1,81 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.taskmanager.config.DatabaseDialect;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+class TaskDeletionRepositoryImpl implements TaskDeletionRepository {
+
+    private static final String POSTGRESQL_DELETE = """
+            DELETE FROM tasks
+            WHERE id IN (:ids)
+            RETURNING id, "task title" AS title, "task description" AS description,
+                "creator id" AS creator_id, "assigned user id" AS assigned_user_id, status,
+                "create date and time" AS create_date_time, "dead line date and time" AS dead_line_date,
+                priority, "done date and time" AS done_date_time, version
+            """;
+
+    // H2 has no DELETE ... RETURNING, its data change delta table returns the deleted rows
+    private static final String H2_DELETE = """
+            SELECT id, "task title" AS title, "task description" AS description,
+                "creator id" AS creator_id, "assigned user id" AS assigned_user_id, status,
+                "create date and time" AS create_date_time, "dead line date and time" AS dead_line_date,
+                priority, "done date and time" AS done_date_time, version
+            FROM OLD TABLE (
+                DELETE FROM tasks
+                WHERE id IN (:ids)
+            )
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Task> deleteAllReturning(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> rows = entityManager.createNativeQuery(databaseDialect.isPostgreSql() ? POSTGRESQL_DELETE : H2_DELETE)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TaskEntity.class)
+                .addScalar("id", Long.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("creator_id", Long.class)
+                .addScalar("assigned_user_id", Long.class)
+                .addScalar("status", String.class)
+                .addScalar("create_date_time", LocalDateTime.class)
+                .addScalar("dead_line_date", LocalDateTime.class)
+                .addScalar("priority", String.class)
+                .addScalar("done_date_time", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .setParameterList("ids", ids)
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> new Task(
+                        (Long) row[0],
+                        (String) row[1],
+                        (String) row[2],
+                        (Long) row[3],
+                        (Long) row[4],
+                        Status.valueOf((String) row[5]),
+                        (LocalDateTime) row[6],
+                        (LocalDateTime) row[7],
+                        Priority.valueOf((String) row[8]),
+                        (LocalDateTime) row[9],
+                        (Long) row[10]))
+                .toList();
+    }
+}
@@ -1,16 +1,26 @@
 package org.example.taskmanager.tasks;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
-@Table(name = "tasks")
+// indexes are created by the flyway migrations, they are declared here to keep the entity in sync with the schema
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_assigned_user_status", columnList = "assigned user id, status"),
+        @Index(name = "idx_tasks_creator_priority", columnList = "creator id, priority"),
+        @Index(name = "idx_tasks_deadline", columnList = "dead line date and time"),
+        @Index(name = "idx_tasks_create_date", columnList = "create date and time")
+})
 @Entity
+// UPDATE statements list only the columns that actually changed
+@DynamicUpdate
 public class TaskEntity {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY) //чето там генератор какой то?
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "task title", nullable = false)
@@ -42,6 +52,15 @@ public class TaskEntity {
     @Column(name = "done date and time")
     LocalDateTime doneDataTime;
 
+    // incremented by every UPDATE of the row, a write based on an older version fails instead of overwriting
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // written only by the overdue claim of the deadline scheduler, never by Hibernate
+    @Column(name = "overdue_notified_at", insertable = false, updatable = false)
+    private LocalDateTime overdueNotifiedAt;
+
 
 
     public TaskEntity() {
@@ -145,4 +164,12 @@ public class TaskEntity {
     public void setDoneDataTime(LocalDateTime doneDataTime) {
         this.doneDataTime = doneDataTime;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
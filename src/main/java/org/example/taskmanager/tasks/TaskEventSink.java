@@ -0,0 +1,13 @@
+package org.example.taskmanager.tasks;
+
+import java.util.List;
+
+/**
+ * Destination of the task events relayed from the outbox, e.g. a message broker.
+ * publish must return only after the whole batch is stored by the destination. When it throws,
+ * the batch stays in the outbox and is delivered again, so a batch can arrive more than once.
+ */
+public interface TaskEventSink {
+
+    void publish(List<TaskOutboxMessage> messages);
+}
@@ -0,0 +1,85 @@
+package org.example.taskmanager.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Writes tasks one by one as NDJSON lines or CSV rows, nothing is buffered besides the underlying writer.
+ */
+public class TaskExportWriter implements Consumer<Task> {
+
+    private static final String CSV_HEADER = "id,title,description,creatorId,assignedUserId,status,"
+            + "createDateTime,deadLineDate,priority,doneDataTime";
+
+    private final TaskExportFormat format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+
+    public TaskExportWriter(TaskExportFormat format, Writer writer, ObjectMapper objectMapper) {
+        this.format = format;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeHeader() {
+        if (format == TaskExportFormat.CSV) {
+            writeLine(CSV_HEADER);
+        }
+    }
+
+    @Override
+    public void accept(Task task) {
+        try {
+            writeLine(format == TaskExportFormat.CSV ? toCsv(task) : objectMapper.writeValueAsString(task));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+
+    private void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String toCsv(Task task) {
+        return String.join(",",
+                csv(task.id()),
+                csv(task.title()),
+                csv(task.description()),
+                csv(task.creatorId()),
+                csv(task.assignedUserId()),
+                csv(task.status()),
+                csv(task.createDateTime()),
+                csv(task.deadLineDate()),
+                csv(task.priority()),
+                csv(task.doneDataTime()));
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
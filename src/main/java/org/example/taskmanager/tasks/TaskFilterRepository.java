@@ -0,0 +1,38 @@
+package org.example.taskmanager.tasks;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filter queries that are built at runtime, so only predicates for the fields actually present
+ * in {@link TaskSearchFilter} end up in SQL and every filter combination gets its own plan.
+ */
+public interface TaskFilterRepository {
+
+    /**
+     * Selects the matching rows straight into {@link Task} records, nothing is added to the persistence context.
+     * The cursor and deadline reads below do the same.
+     */
+    List<Task> searchAllByFilter(TaskSearchFilter filter, Pageable pageable);
+
+    /**
+     * Matching tasks after afterId in id order. With q the text only filters, the rank orders numbered pages only.
+     */
+    List<Task> searchAllByFilterAfterId(TaskSearchFilter filter, Long afterId, Limit limit);
+
+    /**
+     * Ids of the matching tasks after afterId in id order, the rows are locked until the end of the transaction
+     * so they still match when they are deleted. Only the ids are read, no entity is loaded.
+     */
+    List<Long> lockIdsByFilterAfterId(TaskSearchFilter filter, Long afterId, Limit limit);
+
+    /**
+     * Tasks that are not DONE and whose deadline is before the given time, ordered by deadline and id,
+     * starting after the cursor. assignedUserId null means all users.
+     * With before = now these are the overdue tasks, the deadline scheduler loads its upcoming window with it.
+     */
+    List<Task> findOpenWithDeadlineBefore(Long assignedUserId, LocalDateTime before, TaskDeadlineCursor after, Limit limit);
+}
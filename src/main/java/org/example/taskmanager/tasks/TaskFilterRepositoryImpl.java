@@ -0,0 +1,287 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.example.taskmanager.config.DatabaseDialect;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class TaskFilterRepositoryImpl implements TaskFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // only needed for q when the database is not PostgreSQL
+    @Autowired
+    private ObjectProvider<TaskTextIndex> textIndex;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+
+    @Override
+    public List<Task> searchAllByFilter(TaskSearchFilter filter, Pageable pageable) {
+        if (filter.hasText() && !databaseDialect.isPostgreSql()) {
+            return searchByTextInIndex(filter, pageable);
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+
+        List<Predicate> predicates = toPredicates(filter, root, cb);
+        query.select(toTask(root, cb));
+        if (filter.hasText()) {
+            // ranked by ts_rank, the id keeps equally ranked tasks in a stable order across pages
+            predicates.add(textMatches(filter, root, cb));
+            query.orderBy(cb.desc(textRank(filter, root, cb)), cb.asc(root.get("id")));
+        } else {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        TypedQuery<Task> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+
+    @Override
+    public List<Task> searchAllByFilterAfterId(TaskSearchFilter filter, Long afterId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+
+        List<Predicate> predicates = toPredicates(filter, root, cb);
+        predicates.add(cb.greaterThan(root.get("id"), afterId));
+        if (!addTextMatch(filter, afterId, root, cb, predicates)) {
+            return List.of();
+        }
+
+        query.select(toTask(root, cb));
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(root.get("id")));
+
+        TypedQuery<Task> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+
+
+    @Override
+    public List<Long> lockIdsByFilterAfterId(TaskSearchFilter filter, Long afterId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+
+        List<Predicate> predicates = toPredicates(filter, root, cb);
+        predicates.add(cb.greaterThan(root.get("id"), afterId));
+        if (!addTextMatch(filter, afterId, root, cb, predicates)) {
+            return List.of();
+        }
+
+        query.select(root.get("id"));
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(root.get("id")));
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+
+
+    @Override
+    public List<Task> findOpenWithDeadlineBefore(Long assignedUserId, LocalDateTime before, TaskDeadlineCursor after, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(overdue(root, cb, before));
+        if (assignedUserId != null) {
+            predicates.add(cb.equal(root.get("assignedUserId"), assignedUserId));
+        }
+        if (after != null) {
+            // (deadline, id) > (after.deadline, after.id)
+            predicates.add(cb.or(
+                    cb.greaterThan(root.get("deadLineDate"), after.deadLineDate()),
+                    cb.and(
+                            cb.equal(root.get("deadLineDate"), after.deadLineDate()),
+                            cb.greaterThan(root.get("id"), after.id()))));
+        }
+
+        query.select(toTask(root, cb));
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(root.get("deadLineDate")), cb.asc(root.get("id")));
+
+        TypedQuery<Task> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+
+
+    // DONE is rendered as a literal, not a bind parameter, so PostgreSQL can prove the condition
+    // of the partial deadline indexes (status <> 'DONE') and use them
+    private static Predicate overdue(Root<TaskEntity> root, CriteriaBuilder cb, LocalDateTime now) {
+        return cb.and(
+                cb.notEqual(root.get("status"), cb.literal(Status.DONE)),
+                cb.lessThan(root.get("deadLineDate"), now));
+    }
+
+
+    // the index ranks the matching ids, the database applies the other filter fields to them
+    private List<Task> searchByTextInIndex(TaskSearchFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+        query.select(toTask(root, cb));
+        List<Predicate> predicates = toPredicates(filter, root, cb);
+
+        List<Long> rankedIds = textIndex.getObject().search(filter.q());
+        if (predicates.isEmpty() && pageable.isPaged()) {
+            // nothing else to filter, only the ids of the requested page are loaded
+            int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+            rankedIds = rankedIds.subList(from, Math.min(from + pageable.getPageSize(), rankedIds.size()));
+            pageable = Pageable.unpaged();
+        }
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rankById = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rankById.put(rankedIds.get(i), i);
+        }
+
+        predicates.add(root.get("id").in(rankedIds));
+        query.where(predicates.toArray(Predicate[]::new));
+
+        Stream<Task> ranked = entityManager.createQuery(query).getResultList().stream()
+                .sorted(Comparator.comparing(task -> rankById.get(task.id())));
+        if (pageable.isPaged()) {
+            ranked = ranked.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return ranked.toList();
+    }
+
+
+    // constructor expression in the order of the Task record components
+    private static CompoundSelection<Task> toTask(Root<TaskEntity> root, CriteriaBuilder cb) {
+        return cb.construct(Task.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("description"),
+                root.get("creatorId"),
+                root.get("assignedUserId"),
+                root.get("status"),
+                root.get("createDateTime"),
+                root.get("deadLineDate"),
+                root.get("priority"),
+                root.get("doneDataTime"),
+                root.get("version"));
+    }
+
+
+    // q as one more predicate next to the other filter fields. On PostgreSQL search_vector is matched in the query,
+    // elsewhere the ids the index matches after afterId are, unranked as the result is ordered by id.
+    // False when no task matches, the query can be skipped
+    private boolean addTextMatch(TaskSearchFilter filter, long afterId, Root<TaskEntity> root, CriteriaBuilder cb,
+                                 List<Predicate> predicates) {
+        if (!filter.hasText()) {
+            return true;
+        }
+        if (databaseDialect.isPostgreSql()) {
+            predicates.add(textMatches(filter, root, cb));
+            return true;
+        }
+        List<Long> matchingIds = textIndex.getObject().search(filter.q()).stream()
+                .filter(id -> id > afterId)
+                .toList();
+        if (matchingIds.isEmpty()) {
+            return false;
+        }
+        predicates.add(root.get("id").in(matchingIds));
+        return true;
+    }
+
+
+    // q is bound as a parameter like the other filter values
+    private static Predicate textMatches(TaskSearchFilter filter, Root<TaskEntity> root, CriteriaBuilder cb) {
+        return cb.isTrue(cb.function(TaskTextFunctions.TEXT_MATCHES, Boolean.class,
+                root.get("id"), ((HibernateCriteriaBuilder) cb).value(filter.q())));
+    }
+
+
+    private static Expression<Float> textRank(TaskSearchFilter filter, Root<TaskEntity> root, CriteriaBuilder cb) {
+        return cb.function(TaskTextFunctions.TEXT_RANK, Float.class,
+                root.get("id"), ((HibernateCriteriaBuilder) cb).value(filter.q()));
+    }
+
+
+    private static List<Predicate> toPredicates(TaskSearchFilter filter, Root<TaskEntity> root, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.creatorId() != null) {
+            predicates.add(cb.equal(root.get("creatorId"), filter.creatorId()));
+        }
+        if (filter.assignedUserId() != null) {
+            predicates.add(cb.equal(root.get("assignedUserId"), filter.assignedUserId()));
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(root.get("status"), filter.status()));
+        }
+        if (filter.priority() != null) {
+            predicates.add(cb.equal(root.get("priority"), filter.priority()));
+        }
+        if (filter.deadlineFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("deadLineDate"), filter.deadlineFrom()));
+        }
+        if (filter.deadlineTo() != null) {
+            predicates.add(cb.lessThan(root.get("deadLineDate"), filter.deadlineTo()));
+        }
+        if (filter.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("createDateTime"), filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            predicates.add(cb.lessThan(root.get("createDateTime"), filter.createdTo()));
+        }
+        if (filter.doneFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("doneDataTime"), filter.doneFrom()));
+        }
+        if (filter.doneTo() != null) {
+            predicates.add(cb.lessThan(root.get("doneDataTime"), filter.doneTo()));
+        }
+        if (filter.overdue() != null) {
+            Predicate overdue = overdue(root, cb, LocalDateTime.now());
+            predicates.add(filter.overdue() ? overdue : cb.not(overdue));
+        }
+        return predicates;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.taskmanager.tasks;
 
+import java.util.function.Consumer;
 
 public class TaskMapper {
 
@@ -14,7 +15,8 @@ public class TaskMapper {
                 entity.getCreateDateTime(),
                 entity.getDeadLineDate(),
                 entity.getPriority(),
-                entity.getDoneDataTime()
+                entity.getDoneDataTime(),
+                entity.getVersion()
         );
     }
 
@@ -33,5 +35,33 @@ public class TaskMapper {
         );
     }
 
+    // copies the editable fields of a full update onto a managed entity, dirty checking writes only what differs
+    public static void applyChanges (Task task, TaskEntity entity){
+        entity.setTitle(task.title());
+        entity.setDescription(task.description());
+        entity.setCreatorId(task.creatorId());
+        entity.setAssignedUserId(task.assignedUserId());
+        entity.setDeadLineDate(task.deadLineDate());
+        entity.setPriority(task.priority());
+    }
+
+    // copies only the fields present in the patch, returns false if none of them differs from the entity
+    public static boolean applyPatch (TaskPatch patch, TaskEntity entity){
+        boolean changed = false;
+        changed |= applyIfChanged(patch.title(), entity.getTitle(), entity::setTitle);
+        changed |= applyIfChanged(patch.description(), entity.getDescription(), entity::setDescription);
+        changed |= applyIfChanged(patch.creatorId(), entity.getCreatorId(), entity::setCreatorId);
+        changed |= applyIfChanged(patch.assignedUserId(), entity.getAssignedUserId(), entity::setAssignedUserId);
+        changed |= applyIfChanged(patch.deadLineDate(), entity.getDeadLineDate(), entity::setDeadLineDate);
+        changed |= applyIfChanged(patch.priority(), entity.getPriority(), entity::setPriority);
+        return changed;
+    }
 
+    private static <T> boolean applyIfChanged (T newValue, T currentValue, Consumer<T> setter){
+        if (newValue == null || newValue.equals(currentValue)) {
+            return false;
+        }
+        setter.accept(newValue);
+        return true;
+    }
 }
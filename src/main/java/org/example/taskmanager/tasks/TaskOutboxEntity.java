@@ -0,0 +1,74 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task change waiting to be relayed, the payload is the {@link TaskChangedEvent} as JSON.
+ */
+@Table(name = "task_outbox")
+@Entity
+public class TaskOutboxEntity {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_outbox_seq")
+    @SequenceGenerator(name = "task_outbox_seq", sequenceName = "task_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private TaskChangedEvent.Type eventType;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "assigned_user_id", nullable = false)
+    private Long assignedUserId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+
+
+    public TaskOutboxEntity() {
+    }
+
+    public TaskOutboxEntity(TaskChangedEvent.Type eventType, Long taskId, Long assignedUserId, String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.taskId = taskId;
+        this.assignedUserId = assignedUserId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+
+
+    public Long getId() {
+        return id;
+    }
+
+    public TaskChangedEvent.Type getEventType() {
+        return eventType;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Long getAssignedUserId() {
+        return assignedUserId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.taskmanager.tasks;
+
+import java.time.LocalDateTime;
+
+/**
+ * One outbox row handed to a {@link TaskEventSink}. The id is unique and increasing per instance,
+ * consumers use it to drop a message that is delivered twice.
+ */
+public record TaskOutboxMessage(
+        Long id,
+        TaskChangedEvent.Type type,
+        Long taskId,
+        Long assignedUserId,
+        String payload,
+        LocalDateTime createdAt
+) {
+}
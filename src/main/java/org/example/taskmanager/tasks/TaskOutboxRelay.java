@@ -0,0 +1,82 @@
+package org.example.taskmanager.tasks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Drains the outbox into the {@link TaskEventSink}. Every batch is locked, published and deleted in one transaction,
+ * a failing sink rolls the batch back and it is published again on the next run (at-least-once delivery).
+ * Within an instance messages are published in id order, relays on several instances take disjoint batches.
+ */
+@Component
+public class TaskOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskOutboxRelay.class);
+
+    private final TaskOutboxRepository outboxRepository;
+    private final TaskEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public TaskOutboxRelay(TaskOutboxRepository outboxRepository, TaskEventSink sink,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${tasks.outbox.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+
+    /**
+     * Publishes batches until the outbox is drained and returns the number of relayed messages.
+     */
+    @Scheduled(
+            initialDelayString = "${tasks.outbox.relay-interval:PT1S}",
+            fixedDelayString = "${tasks.outbox.relay-interval:PT1S}")
+    public int relay() {
+        int relayed = 0;
+        try {
+            int batch;
+            do {
+                batch = relayBatch();
+                relayed += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException ex) {
+            // the failed batch is still in the outbox and is retried on the next run
+            log.warn("Relaying task events failed after {} messages: {}", relayed, ex.getMessage());
+        }
+        return relayed;
+    }
+
+
+    private int relayBatch() {
+        return transactionTemplate.execute(status -> {
+            List<TaskOutboxEntity> batch = outboxRepository.lockNextBatch(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            sink.publish(batch.stream().map(TaskOutboxRelay::toMessage).toList());
+            outboxRepository.deleteAllByIdInBatch(batch.stream().map(TaskOutboxEntity::getId).toList());
+            return batch.size();
+        });
+    }
+
+
+    private static TaskOutboxMessage toMessage(TaskOutboxEntity entity) {
+        return new TaskOutboxMessage(
+                entity.getId(),
+                entity.getEventType(),
+                entity.getTaskId(),
+                entity.getAssignedUserId(),
+                entity.getPayload(),
+                entity.getCreatedAt());
+    }
+}
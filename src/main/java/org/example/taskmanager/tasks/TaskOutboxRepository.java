@@ -0,0 +1,24 @@
+package org.example.taskmanager.tasks;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaskOutboxRepository extends JpaRepository<TaskOutboxEntity, Long> {
+
+
+    /**
+     * Locks the oldest rows that are not locked by another relay yet.
+     * Relays running in parallel, e.g. on several instances, take disjoint batches instead of waiting for each other.
+     */
+    @Query(value = """
+            SELECT * FROM task_outbox
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<TaskOutboxEntity> lockNextBatch(@Param("limit") int limit);
+}
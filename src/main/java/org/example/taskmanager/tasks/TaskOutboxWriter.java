@@ -0,0 +1,52 @@
+package org.example.taskmanager.tasks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inserts every {@link TaskChangedEvent} into the outbox while the transaction of the change is still open,
+ * so the change and its event are committed or rolled back together.
+ * The ids come from task_outbox_seq with a pooled allocation of 50 per instance, so they are ordered only
+ * within one instance: a later change of the same task made on another instance can get a lower id.
+ * Consumers cannot rely on the relay's {@code ORDER BY id} for the order of the events of one task
+ * across instances and should order them by task.version in the payload.
+ */
+@Component
+public class TaskOutboxWriter {
+
+    private final TaskOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public TaskOutboxWriter(TaskOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+
+    // MANDATORY: an event published outside a transaction would be stored without the change it describes
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTaskChanged(TaskChangedEvent event) {
+        outboxRepository.save(new TaskOutboxEntity(
+                event.type(),
+                event.taskId(),
+                event.assignedUserId(),
+                toJson(event),
+                LocalDateTime.now()));
+    }
+
+
+    private String toJson(TaskChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize task event " + event.type() + " of task id = " + event.taskId(), ex);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.taskmanager.tasks;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link TaskDeadlineScheduler} once when an open task passes its deadline, e.g. to notify the assignee.
+ */
+public record TaskOverdueEvent(
+        Long taskId,
+        Long assignedUserId,
+        LocalDateTime deadLineDate
+) {
+}
@@ -0,0 +1,19 @@
+package org.example.taskmanager.tasks;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Claims the overdue notification of tasks with one conditional UPDATE that returns the claimed rows,
+ * so with several instances running the deadline scheduler each task is reported by one of them.
+ */
+public interface TaskOverdueRepository {
+
+    /**
+     * Marks the tasks with the given ids that are not DONE, passed their deadline at now and were not notified
+     * for this deadline yet, and returns them as overdue events. A task whose deadline was moved after
+     * its notification is claimed again when the new deadline passes. Must run in a transaction.
+     */
+    List<TaskOverdueEvent> claimOverdueByIds(Collection<Long> ids, LocalDateTime now);
+}
@@ -0,0 +1,66 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.taskmanager.config.DatabaseDialect;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+class TaskOverdueRepositoryImpl implements TaskOverdueRepository {
+
+    // a concurrent claim of the same row waits for the row lock and then no longer matches the WHERE clause
+    private static final String POSTGRESQL_CLAIM = """
+            UPDATE tasks
+            SET overdue_notified_at = :now
+            WHERE id IN (:ids)
+            AND status <> 'DONE'
+            AND "dead line date and time" <= :now
+            AND (overdue_notified_at IS NULL OR overdue_notified_at < "dead line date and time")
+            RETURNING id, "assigned user id" AS assigned_user_id, "dead line date and time" AS dead_line_date
+            """;
+
+    // H2 has no UPDATE ... RETURNING, its data change delta table returns the rows, the returned columns are not changed
+    private static final String H2_CLAIM = """
+            SELECT id, "assigned user id" AS assigned_user_id, "dead line date and time" AS dead_line_date
+            FROM OLD TABLE (
+                UPDATE tasks
+                SET overdue_notified_at = :now
+                WHERE id IN (:ids)
+                AND status <> 'DONE'
+                AND "dead line date and time" <= :now
+                AND (overdue_notified_at IS NULL OR overdue_notified_at < "dead line date and time")
+            )
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DatabaseDialect databaseDialect;
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TaskOverdueEvent> claimOverdueByIds(Collection<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> rows = entityManager.createNativeQuery(databaseDialect.isPostgreSql() ? POSTGRESQL_CLAIM : H2_CLAIM)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(TaskEntity.class)
+                .addScalar("id", Long.class)
+                .addScalar("assigned_user_id", Long.class)
+                .addScalar("dead_line_date", LocalDateTime.class)
+                .setParameterList("ids", ids)
+                .setParameter("now", now)
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> new TaskOverdueEvent((Long) row[0], (Long) row[1], (LocalDateTime) row[2]))
+                .toList();
+    }
+}
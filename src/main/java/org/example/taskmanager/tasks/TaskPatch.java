@@ -0,0 +1,36 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.validation.constraints.*;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Body of PATCH /tasks/{id}, fields left null keep their current value.
+ */
+@Builder
+public record TaskPatch(
+
+        @Pattern(regexp = "(?s).*\\S.*", message = "Title must not be empty.")
+        @Size(max = 100, message = "Title must be at most 100 characters long.")
+        String title,
+
+        @Size(max = 500, message = "Description must be at most 500 characters.")
+        String description,
+
+        @Positive
+        Long creatorId,
+
+        @Positive
+        Long assignedUserId,
+
+        @Future
+        LocalDateTime deadLineDate,
+
+        Priority priority
+
+)
+{
+
+
+}
@@ -1,21 +1,62 @@
 package org.example.taskmanager.tasks;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
+public interface TaskRepository extends JpaRepository<TaskEntity, Long>, TaskFilterRepository, TaskCompletionRepository, TaskDeletionRepository,
+        TaskOverdueRepository {
 
 
-    List<TaskEntity> findAllEntitiesByAssignedUserId (Long assignedUserId);
+    // read endpoints select straight into the Task record: no managed entity, no dirty checking snapshot, no mapping copy
+    @Query(value = """
+            SELECT new org.example.taskmanager.tasks.Task(t.id, t.title, t.description, t.creatorId, t.assignedUserId,
+                t.status, t.createDateTime, t.deadLineDate, t.priority, t.doneDataTime, t.version)
+            FROM TaskEntity t
+            """,
+            countQuery = "SELECT COUNT(t) FROM TaskEntity t")
+    Page<Task> findAllTasks(Pageable pageable);
+
+
+    @Query("""
+            SELECT new org.example.taskmanager.tasks.Task(t.id, t.title, t.description, t.creatorId, t.assignedUserId,
+                t.status, t.createDateTime, t.deadLineDate, t.priority, t.doneDataTime, t.version)
+            FROM TaskEntity t
+            WHERE t.id = :id
+            """)
+    Optional<Task> findTaskById(@Param("id") Long id);
+
+
+    @Query("""
+            SELECT new org.example.taskmanager.tasks.Task(t.id, t.title, t.description, t.creatorId, t.assignedUserId,
+                t.status, t.createDateTime, t.deadLineDate, t.priority, t.doneDataTime, t.version)
+            FROM TaskEntity t
+            WHERE t.assignedUserId = :assignedUserId
+            """)
+    List<Task> findAllTasksByAssignedUserId(@Param("assignedUserId") Long assignedUserId);
+
+
+    @Query("""
+            SELECT new org.example.taskmanager.tasks.Task(t.id, t.title, t.description, t.creatorId, t.assignedUserId,
+                t.status, t.createDateTime, t.deadLineDate, t.priority, t.doneDataTime, t.version)
+            FROM TaskEntity t
+            WHERE t.id IN :ids
+            """)
+    List<Task> findAllTasksByIdIn(@Param("ids") Collection<Long> ids);
 
 
     @Query("""
@@ -32,7 +73,7 @@ public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
     @Modifying(clearAutomatically = true)
     @Query("""
             update TaskEntity entity
-            set entity.status = :status
+            set entity.status = :status, entity.version = entity.version + 1
             where entity.id = :id
             """
     )
@@ -41,18 +82,75 @@ public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
             @Param("status") Status status);
 
 
+    // bulk variants of startTask and completeTask: every row must still have the status and user read before,
+    // the caller compares the update count with the number of ids
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update TaskEntity entity
+            set entity.status = org.example.taskmanager.tasks.Status.IN_PROGRESS, entity.version = entity.version + 1
+            where entity.id in :ids
+            and entity.status = :expectedStatus
+            and entity.assignedUserId = :assignedUserId
+            """)
+    int markAllInProgress(
+            @Param("ids") Collection<Long> ids,
+            @Param("expectedStatus") Status expectedStatus,
+            @Param("assignedUserId") Long assignedUserId);
+
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update TaskEntity entity
+            set entity.status = org.example.taskmanager.tasks.Status.DONE, entity.doneDataTime = :doneDateTime,
+                entity.version = entity.version + 1
+            where entity.id in :ids
+            and entity.status = :expectedStatus
+            and entity.assignedUserId = :assignedUserId
+            """)
+    int completeAll(
+            @Param("ids") Collection<Long> ids,
+            @Param("expectedStatus") Status expectedStatus,
+            @Param("assignedUserId") Long assignedUserId,
+            @Param("doneDateTime") LocalDateTime doneDateTime);
+
+
+    @Query("""
+            SELECT new org.example.taskmanager.tasks.UserTaskCount(t.assignedUserId, t.status, COUNT(t))
+            FROM TaskEntity t
+            WHERE t.assignedUserId = :assignedUserId
+            GROUP BY t.assignedUserId, t.status
+            """)
+    List<UserTaskCount> countByStatusOfAssignedUser(@Param("assignedUserId") Long assignedUserId);
+
+
+    // the archiver creates the archive partitions from the month of the oldest task it is going to move
+    @Query("""
+            SELECT MIN(t.doneDataTime) FROM TaskEntity t
+            WHERE t.status = org.example.taskmanager.tasks.Status.DONE
+            AND t.doneDataTime < :before
+            """)
+    Optional<LocalDateTime> findOldestDoneDateBefore(@Param("before") LocalDateTime before);
+
+
 
+    // the bulk status change locks the tasks it is going to change before it touches the counters
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
-            SELECT t from TaskEntity t
-            WHERE (:creatorId IS NULL OR t.creatorId = :creatorId)
-            AND (:assignedUserId IS NULL OR t.assignedUserId = :assignedUserId)
-            AND (:status IS NULL OR t.status = :status)
-            AND (:priority IS NULL OR t.priority = :priority)
+            SELECT t.id FROM TaskEntity t
+            WHERE t.id IN :ids
+            ORDER BY t.id
+            """)
+    List<Long> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+
+    @Query("""
+            SELECT new org.example.taskmanager.tasks.Task(t.id, t.title, t.description, t.creatorId, t.assignedUserId,
+                t.status, t.createDateTime, t.deadLineDate, t.priority, t.doneDataTime, t.version)
+            FROM TaskEntity t
+            WHERE t.id > :afterId
+            ORDER BY t.id
             """)
-    List<TaskEntity> searchAllByFilter (
-            @Param("creatorId") Long creatorId,
-            @Param ("assignedUserId") Long assignedUserId,
-            @Param ("status") Status status,
-            @Param ("priority") Priority priority,
-            Pageable pageable);
+    List<Task> findAllTasksAfterId(
+            @Param("afterId") Long afterId,
+            Limit limit);
 }
@@ -1,10 +1,42 @@
 package org.example.taskmanager.tasks;
 
+import lombok.Builder;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * q is a full-text query over title and description, e.g. {@code deploy "release notes" -draft}.
+ * Date ranges are half-open, from is inclusive and to exclusive, either end may be left out.
+ * overdue = true selects tasks that are not DONE and past their deadline, false the others.
+ * GET /tasks/filter and /tasks/export bind it from the query parameters of the same names.
+ */
+@Builder
 public record TaskSearchFilter(
         Long creatorId,
         Long assignedUserId,
         Status status,
         Priority priority,
+        String q,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineTo,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime doneFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime doneTo,
+        Boolean overdue,
         Integer pageSize,
         Integer pageNum
-) {}
+) {
+
+    boolean hasText() {
+        return q != null && !q.isBlank();
+    }
+
+    // paging fields do not select anything
+    boolean hasCondition() {
+        return creatorId != null || assignedUserId != null || status != null || priority != null || hasText()
+                || deadlineFrom != null || deadlineTo != null || createdFrom != null || createdTo != null
+                || doneFrom != null || doneTo != null || overdue != null;
+    }
+}
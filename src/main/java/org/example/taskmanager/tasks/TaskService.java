@@ -1,42 +1,120 @@
 package org.example.taskmanager.tasks;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 
+// every public method is timed as tasks.service, tagged with its class and method name
+@Timed(value = "tasks.service", description = "TaskService method latency")
 @Service
 public class TaskService {
 
 
     private static final Logger logService = LoggerFactory.getLogger(TaskService.class);
 
-    private final TaskRepository taskRepository;
+    static final String TASK_CACHE = "tasks";
+
+    static final int MAX_IN_PROGRESS_TASKS = 5;
+
+    static final int MAX_BATCH_SIZE = 10_000;
+    // matches hibernate.jdbc.batch_size, the persistence context is cleared after every chunk
+    private static final int BATCH_CHUNK_SIZE = 50;
+    // ids per IN list of the bulk status change, and per transaction of the bulk delete
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    // tasks read per transaction of the export, no connection is held while they are written to the client
+    static final int EXPORT_PAGE_SIZE = 1000;
 
-    public TaskService(TaskRepository taskRepository) {
+    // upper bound of every page a client can ask for, also keeps size + 1 of the cursor queries from overflowing
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final TaskRepository taskRepository;
+    private final UserTaskCounterRepository counterRepository;
+    private final TaskArchiveRepository archiveRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public TaskService(TaskRepository taskRepository, UserTaskCounterRepository counterRepository,
+                       TaskArchiveRepository archiveRepository, EntityManager entityManager, Validator validator, ApplicationEventPublisher eventPublisher,
+                       CacheManager cacheManager, PlatformTransactionManager transactionManager) {
         this.taskRepository = taskRepository;
+        this.counterRepository = counterRepository;
+        this.archiveRepository = archiveRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
 
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = TASK_CACHE, key = "#id")
     public Task getTaskById(Long id) {
-        TaskEntity taskEntity = taskRepository.findById(id)
+        return taskRepository.findTaskById(id)
+                // DONE tasks are moved to the archive after a while, they stay readable by id
+                .or(() -> archiveRepository.findTaskById(id))
                 .orElseThrow(() -> new EntityNotFoundException("Not found task by ID: "+id));
-
-        return TaskMapper.fromEntityToDomain(taskEntity);
     }
 
 
+    @Transactional(readOnly = true)
     public Page<Task> getAllTasks(Pageable pageable){
-        return taskRepository.findAll(pageable)
-                .map(TaskMapper::fromEntityToDomain);
+        if (pageable.isPaged()) {
+            checkPageSize(pageable.getPageSize());
+        }
+        return taskRepository.findAllTasks(pageable);
+    }
+
+
+    @Transactional(readOnly = true)
+    public TaskCursorPage getAllTasksAfter(String cursor, int size) {
+        checkPageSize(size);
+        List<Task> tasks = taskRepository.findAllTasksAfterId(TaskCursor.decode(cursor), Limit.of(size + 1));
+        return toCursorPage(tasks, size);
     }
 
 
@@ -48,114 +126,738 @@ public class TaskService {
         entityToSave.setCreateDateTime(LocalDateTime.now());
 
         var savedEntity = taskRepository.save(entityToSave);
+        changeCounters(savedEntity.getAssignedUserId(), Map.of(Status.CREATED, 1L));
         logService.info("New task created with id = " + savedEntity.getId());
-        return TaskMapper.fromEntityToDomain(savedEntity);
+        var createdTask = TaskMapper.fromEntityToDomain(savedEntity);
+        eventPublisher.publishEvent(TaskChangedEvent.created(createdTask));
+        return createdTask;
     }
 
 
+    /**
+     * Creates many tasks in one transaction using JDBC batch inserts.
+     * Every task is validated on its own, invalid ones are reported in the result and skipped,
+     * a database error rolls back the whole batch.
+     */
+    @Transactional
+    public List<TaskBatchResult> createNewTasks(List<Task> tasksToCreate)
+    {
+        if (tasksToCreate.size() > MAX_BATCH_SIZE){
+            throw new IllegalArgumentException("Cannot create more than " + MAX_BATCH_SIZE + " tasks in one batch, got " + tasksToCreate.size());
+        }
+
+        var results = new TaskBatchResult[tasksToCreate.size()];
+        List<Integer> indexesToSave = new ArrayList<>();
+        List<TaskEntity> entitiesToSave = new ArrayList<>();
+        var now = LocalDateTime.now();
+
+        for (int i = 0; i < tasksToCreate.size(); i++) {
+            Task task = tasksToCreate.get(i);
+            String error = validate(task);
+            if (error != null) {
+                results[i] = TaskBatchResult.rejected(i, error);
+                continue;
+            }
+            var entityToSave = TaskMapper.fromDomainToEntity(task);
+            entityToSave.setStatus(Status.CREATED);
+            entityToSave.setCreateDateTime(now);
+            indexesToSave.add(i);
+            entitiesToSave.add(entityToSave);
+        }
+
+        for (int from = 0; from < entitiesToSave.size(); from += BATCH_CHUNK_SIZE) {
+            int to = Math.min(from + BATCH_CHUNK_SIZE, entitiesToSave.size());
+            var savedChunk = taskRepository.saveAll(entitiesToSave.subList(from, to));
+            for (int j = 0; j < savedChunk.size(); j++) {
+                int index = indexesToSave.get(from + j);
+                var createdTask = TaskMapper.fromEntityToDomain(savedChunk.get(j));
+                results[index] = TaskBatchResult.created(index, createdTask);
+                eventPublisher.publishEvent(TaskChangedEvent.created(createdTask));
+            }
+            // the outbox rows of the chunk are flushed together with the tasks, before the context is cleared
+            taskRepository.flush();
+            entityManager.clear();
+        }
+
+        Map<Long, Long> createdByUser = entitiesToSave.stream()
+                .collect(Collectors.groupingBy(TaskEntity::getAssignedUserId, TreeMap::new, Collectors.counting()));
+        createdByUser.forEach((assignedUserId, created) -> changeCounters(assignedUserId, Map.of(Status.CREATED, created)));
+
+        logService.info(entitiesToSave.size() + " of " + tasksToCreate.size() + " tasks created in batch.");
+        return Arrays.asList(results);
+    }
+
+
+    private String validate(Task task) {
+        if (task == null) {
+            return "Task must not be null";
+        }
+        var violations = validator.validate(task);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#id")
     public void deleteTask(Long id)
     {
-        TaskEntity entityToDelete = taskRepository.findById(id)
-                .orElseThrow(()-> new EntityNotFoundException( "There is no task found by ID: "+id));
-        taskRepository.delete(entityToDelete);
+        // one DELETE returns the row for the counter and the event, the task is not loaded first
+        Task deletedTask = taskRepository.deleteAllReturning(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> notFoundOrArchived(id));
+        changeCounters(deletedTask.assignedUserId(), Map.of(deletedTask.status(), -1L));
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(deletedTask));
         logService.info("Task id = "+id+" successfully deleted.");
     }
 
 
+    /**
+     * Deletes the tasks given by their ids or selected by the filter, not both.
+     * Every chunk of BULK_CHUNK_SIZE tasks is deleted by one set-based DELETE in its own short transaction,
+     * so a purge of millions of rows never holds many row locks and a failure keeps the chunks already committed.
+     * A filter is walked by id, every chunk locks the matching rows before deleting them and the next one
+     * continues after the last id, so deleted rows are not scanned again.
+     */
+    public TaskBulkDeleteResult deleteTasks(TaskBulkDeleteRequest request) {
+        List<Long> ids = request.ids();
+        TaskSearchFilter filter = request.filter();
+        if ((ids == null) == (filter == null)) {
+            throw new IllegalArgumentException("Either ids or filter must be given");
+        }
+        return ids != null ? deleteTasksByIds(ids) : deleteTasksByFilter(filter);
+    }
+
+
+    private TaskBulkDeleteResult deleteTasksByIds(List<Long> ids) {
+        List<Long> requestedIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        checkBulkSize(requestedIds.size());
+        if (requestedIds.contains(null)) {
+            throw new IllegalArgumentException("Task ids must not be null");
+        }
+        Set<Long> deletedIds = new HashSet<>();
+        for (int from = 0; from < requestedIds.size(); from += BULK_CHUNK_SIZE) {
+            var chunk = requestedIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, requestedIds.size()));
+            transactionTemplate.execute(status -> deleteChunk(chunk))
+                    .forEach(task -> deletedIds.add(task.id()));
+        }
+        List<Long> notFound = requestedIds.stream()
+                .filter(id -> !deletedIds.contains(id))
+                .toList();
+
+        logService.info(deletedIds.size() + " of " + requestedIds.size() + " tasks deleted in bulk.");
+        return new TaskBulkDeleteResult(deletedIds.size(), notFound);
+    }
+
+
+    private TaskBulkDeleteResult deleteTasksByFilter(TaskSearchFilter filter) {
+        if (!filter.hasCondition()) {
+            throw new IllegalArgumentException("Filter must contain at least one condition, an empty filter would delete all tasks");
+        }
+        checkDateRanges(filter);
+        long deleted = 0;
+        Long afterId = 0L;
+        while (true) {
+            Long from = afterId;
+            var chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = taskRepository.lockIdsByFilterAfterId(filter, from, Limit.of(BULK_CHUNK_SIZE));
+                return ids.isEmpty() ? null : new DeletedChunk(ids.get(ids.size() - 1), deleteChunk(ids).size());
+            });
+            if (chunk == null) {
+                break;
+            }
+            deleted += chunk.deleted();
+            afterId = chunk.lastId();
+        }
+
+        logService.info(deleted + " tasks deleted in bulk by filter: " + filter);
+        return new TaskBulkDeleteResult(deleted, List.of());
+    }
+
+
+    private record DeletedChunk(Long lastId, int deleted) {}
+
+
+    // runs inside the transaction of the chunk: one DELETE, the counters of the users in ascending order, one event per task
+    private List<Task> deleteChunk(List<Long> ids) {
+        List<Task> deletedTasks = taskRepository.deleteAllReturning(ids);
+
+        Map<Long, Map<Status, Long>> deletedByUser = deletedTasks.stream()
+                .collect(Collectors.groupingBy(Task::assignedUserId, TreeMap::new,
+                        Collectors.groupingBy(Task::status, () -> new EnumMap<>(Status.class),
+                                Collectors.reducing(0L, task -> -1L, Long::sum))));
+        deletedByUser.forEach(this::changeCounters);
+
+        deletedTasks.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.deleted(task)));
+        evictAfterCommit(deletedTasks.stream().map(Task::id).toList());
+        return deletedTasks;
+    }
+
+
     @Transactional
-    public Task editTask(Long id, Task dataToUpdate)
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#id")
+    public Task editTask(Long id, Task dataToUpdate, Set<Long> expectedVersions)
     {
         var taskEntity = taskRepository.findById(id)
-                .orElseThrow(()-> new EntityNotFoundException( "There is no task found by ID: "+id));
+                .orElseThrow(() -> notFoundOrArchived(id));
 
-        if (taskEntity.getStatus() == Status.DONE){
-            throw new IllegalStateException("Cannot modify tasks with Status.DONE, first switch it to IN_PROGRESS " + TaskMapper.fromEntityToDomain(taskEntity));
-        }
+        checkVersion(taskEntity, expectedVersions);
+        checkCanBeModified(taskEntity);
         if(dataToUpdate.status() == Status.CREATED){
             throw new IllegalArgumentException("Cannot modify task-Status to Status.CREATED");
         }
-        if (dataToUpdate.deadLineDate().isBefore(LocalDateTime.now())){
-            throw new IllegalArgumentException("Dead-line date should be before the time of creation!");
+        checkDeadLine(dataToUpdate.deadLineDate());
+
+        Long previousAssignedUserId = taskEntity.getAssignedUserId();
+        Status previousStatus = taskEntity.getStatus();
+
+        // the managed entity is changed in place, the UPDATE is flushed without a merge SELECT
+        TaskMapper.applyChanges(dataToUpdate, taskEntity);
+        taskEntity.setStatus(Status.UPDATED);
+        // flushed here so the returned task carries the new version, and the task row is locked before the counters
+        taskRepository.flush();
+        moveCounter(previousAssignedUserId, previousStatus, taskEntity.getAssignedUserId(), Status.UPDATED);
+
+        logService.info("Task id = "+taskEntity.getId() + " successfully updated.");
+        var updatedTask = TaskMapper.fromEntityToDomain(taskEntity);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(updatedTask, previousAssignedUserId));
+        return updatedTask;
+    }
+
+
+    /**
+     * Applies only the fields present in the patch to the managed entity.
+     * With {@code @DynamicUpdate} the UPDATE contains only the changed columns,
+     * a patch that changes nothing writes nothing and keeps the status.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#id")
+    public Task patchTask(Long id, TaskPatch patch, Set<Long> expectedVersions)
+    {
+        var taskEntity = taskRepository.findById(id)
+                .orElseThrow(() -> notFoundOrArchived(id));
+
+        checkVersion(taskEntity, expectedVersions);
+        checkCanBeModified(taskEntity);
+        if (patch.deadLineDate() != null) {
+            checkDeadLine(patch.deadLineDate());
+        }
+
+        Long previousAssignedUserId = taskEntity.getAssignedUserId();
+        Status previousStatus = taskEntity.getStatus();
+        if (!TaskMapper.applyPatch(patch, taskEntity)) {
+            logService.info("Task id = "+id+" not changed by patch.");
+            return TaskMapper.fromEntityToDomain(taskEntity);
+        }
+        taskEntity.setStatus(Status.UPDATED);
+        taskRepository.flush();
+        moveCounter(previousAssignedUserId, previousStatus, taskEntity.getAssignedUserId(), Status.UPDATED);
+
+        logService.info("Task id = "+id+" successfully patched.");
+        var patchedTask = TaskMapper.fromEntityToDomain(taskEntity);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(patchedTask, previousAssignedUserId));
+        return patchedTask;
+    }
+
+
+    // expectedVersions come from If-Match and any of them may match, null means the client does not ask for a conditional update
+    private static void checkVersion(TaskEntity taskEntity, Set<Long> expectedVersions) {
+        if (expectedVersions != null && !expectedVersions.contains(taskEntity.getVersion())) {
+            throw new OptimisticLockingFailureException("Task id = " + taskEntity.getId() + " has version " + taskEntity.getVersion() + ", expected one of " + expectedVersions);
+        }
+    }
+
+
+    // called when the task is not in the tasks table: a DONE task moved to the archive is still readable by id,
+    // changing it is a conflict with its state and not a missing task
+    private RuntimeException notFoundOrArchived(Long id) {
+        if (archiveRepository.existsById(id)) {
+            return new TaskArchivedException(id);
         }
+        return new EntityNotFoundException("There is no task found by ID: "+id);
+    }
+
 
-        var taskToUpdate = TaskMapper.fromDomainToEntity(dataToUpdate);
-        taskToUpdate.setId(taskEntity.getId());
-        taskToUpdate.setStatus(Status.UPDATED);
+    private static void checkCanBeModified(TaskEntity taskEntity) {
+        if (taskEntity.getStatus() == Status.DONE){
+            throw new IllegalStateException("Cannot modify tasks with Status.DONE, first switch it to IN_PROGRESS " + TaskMapper.fromEntityToDomain(taskEntity));
+        }
+    }
 
 
-        var updatedTask = taskRepository.save(taskToUpdate);
-        logService.info("Task id = "+updatedTask.getId() + " successfully updated.");
-        return TaskMapper.fromEntityToDomain(updatedTask);
+    private static void checkDeadLine(LocalDateTime deadLineDate) {
+        if (deadLineDate.isBefore(LocalDateTime.now())){
+            throw new IllegalArgumentException("Dead-line date should be before the time of creation!");
+        }
     }
 
 
     @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#id")
     public void switchTaskToInProgress(Long id) {
-        var entity = taskRepository.findById(id)
-                .orElseThrow(()-> new EntityNotFoundException("There is no task found by ID: "+id));
+        // one UPDATE switches the task and returns the status it had, the task is not read first
+        var started = taskRepository.startTask(id);
+        if (started.isEmpty()) {
+            // nothing was updated: the task does not exist or is already in progress
+            if (!taskRepository.existsById(id)) {
+                throw notFoundOrArchived(id);
+            }
+            logService.info("Task id = "+id+" is already in Status.IN_PROGRESS.");
+            return;
+        }
+        var startedEntity = started.get().task();
+        Long assignedUserId = startedEntity.getAssignedUserId();
+        Status previousStatus = started.get().previousStatus();
+
+        // a user at the limit fails the call and rolls the task back
+        changeCounters(assignedUserId, Map.of(previousStatus, -1L, Status.IN_PROGRESS, 1L));
+
+        eventPublisher.publishEvent(TaskChangedEvent.statusChanged(TaskMapper.fromEntityToDomain(startedEntity)));
+        logService.info("Task id = "+id+" switched to Status.IN_PROGRESS.");
+    }
+
+
+    // the limit is checked and the slot taken by one conditional update of the user's counter row,
+    // concurrent starts for the same user queue on that row lock instead of all passing a COUNT check
+    private void acquireInProgressSlot(Long assignedUserId) {
+        if (counterRepository.acquireInProgressSlot(assignedUserId, MAX_IN_PROGRESS_TASKS) == 1) {
+            return;
+        }
+        counterRepository.createIfAbsent(assignedUserId, Status.IN_PROGRESS);
+        if (counterRepository.acquireInProgressSlot(assignedUserId, MAX_IN_PROGRESS_TASKS) == 0) {
+            long countEntities = counterRepository.findById(new UserTaskCounterId(assignedUserId, Status.IN_PROGRESS))
+                    .map(UserTaskCounterEntity::getTaskCount)
+                    .orElse(0L);
+            throw new IllegalStateException("User ID " + assignedUserId + " already got " + countEntities + " active tasks. Cannot switch to IN_PROGRESS if user has more than " + (MAX_IN_PROGRESS_TASKS - 1) + " active tasks.");
+        }
+    }
 
-        int countEntities = taskRepository.countByAssignedUserIdAndStatus(entity.getAssignedUserId(),Status.IN_PROGRESS);
-        if(countEntities > 4){
-            throw new IllegalStateException("User ID " + entity.getAssignedUserId() + " already got " + countEntities + " active tasks. Cannot switch to IN_PROGRESS if user has more than 4 active tasks.");
+
+    // moves one task between two counter rows, the users in ascending order
+    private void moveCounter(Long fromUserId, Status fromStatus, Long toUserId, Status toStatus) {
+        if (fromUserId.equals(toUserId)) {
+            if (fromStatus != toStatus) {
+                changeCounters(fromUserId, Map.of(fromStatus, -1L, toStatus, 1L));
+            }
+        } else if (fromUserId < toUserId) {
+            changeCounters(fromUserId, Map.of(fromStatus, -1L));
+            changeCounters(toUserId, Map.of(toStatus, 1L));
+        } else {
+            changeCounters(toUserId, Map.of(toStatus, 1L));
+            changeCounters(fromUserId, Map.of(fromStatus, -1L));
+        }
+    }
+
+
+    // every change of the counters goes through here. All transitions lock the task rows first, then the counter rows
+    // user by user in ascending user id and within a user in Status order, so two transactions never wait for each
+    // other's rows in opposite order. Counting IN_PROGRESS up by one takes the slot and fails when the user is at the limit
+    private void changeCounters(Long assignedUserId, Map<Status, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
         }
-        taskRepository.setStatus(id, Status.IN_PROGRESS);
-        logService.info("Task id = "+entity.getId()+" switched to Status.IN_PROGRESS.");
+        new EnumMap<>(deltas).forEach((status, delta) -> {
+            if (status == Status.IN_PROGRESS && delta == 1) {
+                acquireInProgressSlot(assignedUserId);
+            } else if (delta != 0) {
+                changeCounter(assignedUserId, status, delta);
+            }
+        });
     }
 
 
+    // a missing row is created only when counting up, a missing row counted down is drift left to the reconciliation job
+    private void changeCounter(Long assignedUserId, Status status, long delta) {
+        if (counterRepository.add(assignedUserId, status, delta) == 0 && delta > 0) {
+            counterRepository.createIfAbsent(assignedUserId, status);
+            counterRepository.add(assignedUserId, status, delta);
+        }
+    }
+
+
+    public UserTaskStats getUserTaskStats(Long assignedUserId) {
+        Map<Status, Long> countsByStatus = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            countsByStatus.put(status, 0L);
+        }
+        for (UserTaskCounterEntity counter : counterRepository.findAllByAssignedUserId(assignedUserId)) {
+            countsByStatus.put(counter.getStatus(), counter.getTaskCount());
+        }
+        return new UserTaskStats(assignedUserId, countsByStatus);
+    }
+
+
+    /**
+     * Recounts the tasks of one user and overwrites the counters that drifted.
+     * The counter rows are locked before counting, so transitions of this user wait for the repair
+     * and none of their updates is overwritten. Returns true if any counter was repaired.
+     */
+    @Transactional
+    public boolean reconcileUserTaskCounters(Long assignedUserId) {
+        for (Status status : Status.values()) {
+            counterRepository.createIfAbsent(assignedUserId, status);
+        }
+        // one row after the other in Status order, like changeCounters
+        Map<Status, Long> stored = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            counterRepository.lockByAssignedUserIdAndStatus(assignedUserId, status)
+                    .ifPresent(counter -> stored.put(status, counter.getTaskCount()));
+        }
+        Map<Status, Long> actual = new EnumMap<>(Status.class);
+        for (UserTaskCount count : taskRepository.countByStatusOfAssignedUser(assignedUserId)) {
+            actual.put(count.status(), count.taskCount());
+        }
+
+        boolean repaired = false;
+        for (Status status : Status.values()) {
+            long expected = actual.getOrDefault(status, 0L);
+            long current = stored.getOrDefault(status, 0L);
+            if (current != expected) {
+                counterRepository.set(assignedUserId, status, expected);
+                logService.warn("Counter of user ID " + assignedUserId + " in Status." + status + " repaired: " + current + " -> " + expected);
+                repaired = true;
+            }
+        }
+        return repaired;
+    }
+
+
+    @Transactional(readOnly = true)
     public List<Task> getAllTasksOfOneAssignedUser(Long assignedUserId){
-        return taskRepository.findAllEntitiesByAssignedUserId(assignedUserId).stream()
-                .map(TaskMapper::fromEntityToDomain)
-                .toList();
+        return taskRepository.findAllTasksByAssignedUserId(assignedUserId);
     }
 
 
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#id")
     public Task getTaskDone(Long id) {
+        var completed = taskRepository.completeTask(id, LocalDateTime.now());
+        if (completed.isEmpty()) {
+            // nothing was updated: the task does not exist or is already done, completing it again changes nothing
+            var entity = taskRepository.findById(id)
+                    .orElseThrow(() -> notFoundOrArchived(id));
+            logService.info("Task id = "+id+" is already in Status.DONE.");
+            return TaskMapper.fromEntityToDomain(entity);
+        }
 
-        var entity = taskRepository.findById(id)
-                .orElseThrow(()-> new EntityNotFoundException("There is no task found by ID: "+id));
-
-        var entityToUpdate = new TaskEntity(
-                    entity.getId(),
-                    entity.getTitle(),
-                    entity.getDescription(),
-                    entity.getCreatorId(),
-                    entity.getAssignedUserId(),
-                    entity.setStatus(Status.DONE),
-                    entity.getCreateDateTime(),
-                    entity.getDeadLineDate(),
-                    entity.getPriority(),
-                    LocalDateTime.now()
-        );
-        var updatedEntity = taskRepository.save(entityToUpdate);
+        var updatedEntity = completed.get().task();
+        moveCounter(updatedEntity.getAssignedUserId(), completed.get().previousStatus(), updatedEntity.getAssignedUserId(), Status.DONE);
         logService.info("Task id = "+updatedEntity.getId()+" switched to Status.DONE.");
-        return TaskMapper.fromEntityToDomain(updatedEntity);
+        var completedTask = TaskMapper.fromEntityToDomain(updatedEntity);
+        eventPublisher.publishEvent(TaskChangedEvent.statusChanged(completedTask));
+        return completedTask;
+    }
+
+
+    /**
+     * Switches many tasks to IN_PROGRESS or DONE in one transaction with set-based UPDATEs instead of one call per task.
+     * The rules of the single transitions apply to every task: a user gets at most MAX_IN_PROGRESS_TASKS in progress,
+     * the tasks above the limit are rejected in id order, and a task already in the target status is left as it is,
+     * so a DONE task keeps its done date. A task changed concurrently fails the whole request, it can be retried.
+     */
+    @Transactional
+    public List<TaskStatusResult> changeStatuses(TaskBulkStatusRequest request) {
+        Status target = request.status();
+        if (target != Status.IN_PROGRESS && target != Status.DONE) {
+            throw new IllegalArgumentException("Bulk status change supports Status.IN_PROGRESS and Status.DONE, got " + target);
+        }
+        List<Long> requestedIds = new ArrayList<>();
+        Map<Long, Task> tasksById = loadBulkTargets(request.ids(), request.filter(), requestedIds);
+
+        Map<Long, TaskStatusResult> results = new LinkedHashMap<>();
+        Map<Long, List<Task>> toChangeByUser = new TreeMap<>();
+        for (Long id : requestedIds) {
+            Task task = tasksById.get(id);
+            if (task == null) {
+                results.put(id, TaskStatusResult.notFound(id));
+            } else if (task.status() == target) {
+                results.put(id, TaskStatusResult.unchanged(id));
+            } else {
+                results.put(id, TaskStatusResult.changed(id));
+                toChangeByUser.computeIfAbsent(task.assignedUserId(), userId -> new ArrayList<>()).add(task);
+            }
+        }
+
+        // the task rows before the counter rows, and the users in ascending order, as every transition does
+        lockTasks(toChangeByUser.values().stream().flatMap(List::stream).map(Task::id).sorted().toList());
+        var now = LocalDateTime.now();
+        List<Task> changedTasks = new ArrayList<>();
+        for (var userTasks : toChangeByUser.entrySet()) {
+            Long assignedUserId = userTasks.getKey();
+            List<Task> tasks = userTasks.getValue();
+            tasks.sort(Comparator.comparing(Task::id));
+            if (target == Status.IN_PROGRESS) {
+                // the rows counted down before IN_PROGRESS are locked before the slots are taken
+                tasks.stream()
+                        .map(Task::status)
+                        .filter(previous -> previous.compareTo(Status.IN_PROGRESS) < 0)
+                        .distinct()
+                        .sorted()
+                        .forEach(previous -> counterRepository.lockByAssignedUserIdAndStatus(assignedUserId, previous));
+                int granted = acquireInProgressSlots(assignedUserId, tasks.size());
+                for (Task rejected : tasks.subList(granted, tasks.size())) {
+                    results.put(rejected.id(), TaskStatusResult.rejected(rejected.id(), "User ID " + assignedUserId + " already got " + MAX_IN_PROGRESS_TASKS + " active tasks. Cannot switch to IN_PROGRESS if user has more than " + (MAX_IN_PROGRESS_TASKS - 1) + " active tasks."));
+                }
+                tasks = tasks.subList(0, granted);
+            }
+            Map<Status, List<Long>> idsByPreviousStatus = tasks.stream()
+                    .collect(Collectors.groupingBy(Task::status, () -> new EnumMap<>(Status.class),
+                            Collectors.mapping(Task::id, Collectors.toList())));
+            for (var previous : idsByPreviousStatus.entrySet()) {
+                updateStatuses(previous.getValue(), previous.getKey(), assignedUserId, target, now);
+            }
+            changeCountersOfBulk(assignedUserId, idsByPreviousStatus, target, tasks.size());
+            for (Task task : tasks) {
+                changedTasks.add(withStatus(task, target, now));
+            }
+        }
+
+        // published after all UPDATEs, they clear the persistence context and would drop unflushed outbox rows
+        for (int i = 0; i < changedTasks.size(); i++) {
+            eventPublisher.publishEvent(TaskChangedEvent.statusChanged(changedTasks.get(i)));
+            if ((i + 1) % BATCH_CHUNK_SIZE == 0 || i == changedTasks.size() - 1) {
+                taskRepository.flush();
+                entityManager.clear();
+            }
+        }
+        evictAfterCommit(changedTasks.stream().map(Task::id).toList());
+
+        logService.info(changedTasks.size() + " of " + requestedIds.size() + " tasks switched to Status." + target + " in bulk.");
+        return new ArrayList<>(results.values());
+    }
+
+
+    // the current state of the tasks given by ids or selected by the filter, requestedIds receives the ids in request order
+    private Map<Long, Task> loadBulkTargets(List<Long> ids, TaskSearchFilter filter, List<Long> requestedIds) {
+        if ((ids == null) == (filter == null)) {
+            throw new IllegalArgumentException("Either ids or filter must be given");
+        }
+        Map<Long, Task> tasksById = new HashMap<>();
+        if (ids != null) {
+            requestedIds.addAll(new LinkedHashSet<>(ids));
+            checkBulkSize(requestedIds.size());
+            if (requestedIds.contains(null)) {
+                throw new IllegalArgumentException("Task ids must not be null");
+            }
+            for (int from = 0; from < requestedIds.size(); from += BULK_CHUNK_SIZE) {
+                var chunk = requestedIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, requestedIds.size()));
+                taskRepository.findAllTasksByIdIn(chunk).forEach(task -> tasksById.put(task.id(), task));
+            }
+            return tasksById;
+        }
+        checkDateRanges(filter);
+        var matching = taskRepository.searchAllByFilter(filter, PageRequest.of(0, MAX_BATCH_SIZE + 1, Sort.by("id")));
+        checkBulkSize(matching.size());
+        for (Task task : matching) {
+            requestedIds.add(task.id());
+            tasksById.put(task.id(), task);
+        }
+        return tasksById;
+    }
+
+
+    private static void checkBulkSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Cannot change more than " + MAX_BATCH_SIZE + " tasks in one request");
+        }
+    }
+
+
+    // SELECT ... FOR UPDATE per chunk of ids in ascending order
+    private void lockTasks(List<Long> sortedIds) {
+        for (int from = 0; from < sortedIds.size(); from += BULK_CHUNK_SIZE) {
+            taskRepository.lockAllByIdIn(sortedIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, sortedIds.size())));
+        }
+    }
+
+
+    // one UPDATE per chunk of ids, fails if any of the tasks changed since it was read
+    private void updateStatuses(List<Long> ids, Status previousStatus, Long assignedUserId, Status target, LocalDateTime now) {
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            var chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            int updated = target == Status.DONE
+                    ? taskRepository.completeAll(chunk, previousStatus, assignedUserId, now)
+                    : taskRepository.markAllInProgress(chunk, previousStatus, assignedUserId);
+            if (updated != chunk.size()) {
+                throw new IllegalStateException("Tasks of user ID " + assignedUserId + " were modified concurrently, try again.");
+            }
+        }
+    }
+
+
+    // like acquireInProgressSlot, but takes as many of the wanted slots as are still free under one lock of the counter row
+    private int acquireInProgressSlots(Long assignedUserId, int wanted) {
+        var counter = counterRepository.lockByAssignedUserIdAndStatus(assignedUserId, Status.IN_PROGRESS);
+        if (counter.isEmpty()) {
+            counterRepository.createIfAbsent(assignedUserId, Status.IN_PROGRESS);
+            counter = counterRepository.lockByAssignedUserIdAndStatus(assignedUserId, Status.IN_PROGRESS);
+        }
+        long inProgress = counter.map(UserTaskCounterEntity::getTaskCount).orElse(0L);
+        int granted = (int) Math.max(0, Math.min(wanted, MAX_IN_PROGRESS_TASKS - inProgress));
+        if (granted > 0) {
+            counterRepository.add(assignedUserId, Status.IN_PROGRESS, granted);
+        }
+        return granted;
+    }
+
+
+    // IN_PROGRESS was already counted up by acquireInProgressSlots
+    private void changeCountersOfBulk(Long assignedUserId, Map<Status, List<Long>> idsByPreviousStatus, Status target, int changed) {
+        Map<Status, Long> deltas = new EnumMap<>(Status.class);
+        idsByPreviousStatus.forEach((previous, ids) -> deltas.put(previous, (long) -ids.size()));
+        if (target == Status.DONE && changed > 0) {
+            deltas.put(Status.DONE, (long) changed);
+        }
+        changeCounters(assignedUserId, deltas);
+    }
+
+
+    private static Task withStatus(Task task, Status status, LocalDateTime now) {
+        return new Task(task.id(), task.title(), task.description(), task.creatorId(), task.assignedUserId(),
+                status, task.createDateTime(), task.deadLineDate(), task.priority(),
+                status == Status.DONE ? now : task.doneDataTime(),
+                task.version() != null ? task.version() + 1 : null);
+    }
+
+
+    // after the commit, like @CacheEvict of the single-task methods, staleness is bounded as described in CacheConfig
+    private void evictAfterCommit(List<Long> ids) {
+        Cache cache = cacheManager != null ? cacheManager.getCache(TASK_CACHE) : null;
+        if (cache == null || ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(cache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(cache::evict);
+            }
+        });
     }
 
 
+    @Transactional(readOnly = true)
     public List<Task> searchAllByFilter(TaskSearchFilter filter) {
+        checkDateRanges(filter);
 
         Integer pageSize = filter.pageSize() != null ? filter.pageSize() : 10;
         Integer pageNumber = filter.pageNum() != null ? filter.pageNum() : 0;
+        checkPageSize(pageSize);
 
         var pageable = Pageable
                 .ofSize(pageSize)
                 .withPage(pageNumber);
 
-       List <TaskEntity> allEntities = taskRepository.searchAllByFilter(
-                filter.creatorId(),
-                filter.assignedUserId(),
-                filter.status(),
-                filter.priority(),
-                pageable);
-       if(allEntities.isEmpty()){
+       List<Task> allTasks = taskRepository.searchAllByFilter(filter, pageable);
+       if(allTasks.isEmpty()){
            throw new EntityNotFoundException("Not found task by filter: " + filter);
        }
 
-       return allEntities.stream()
-               .map(TaskMapper::fromEntityToDomain)
-               .toList();
+       return allTasks;
     }
-}
 
 
+    @Transactional(readOnly = true)
+    public TaskCursorPage searchAllByFilterAfter(TaskSearchFilter filter, String cursor) {
+
+        int pageSize = filter.pageSize() != null ? filter.pageSize() : 10;
+        checkPageSize(pageSize);
+        checkDateRanges(filter);
+
+        List<Task> tasks = taskRepository.searchAllByFilterAfterId(
+                filter,
+                TaskCursor.decode(cursor),
+                Limit.of(pageSize + 1));
+
+        return toCursorPage(tasks, pageSize);
+    }
+
+
+    /**
+     * Open tasks past their deadline, most overdue first, paged by a cursor over (deadline, id).
+     */
+    @Transactional(readOnly = true)
+    public TaskCursorPage getOverdueTasksAfter(Long assignedUserId, String cursor, int size) {
+        checkPageSize(size);
+        List<Task> tasks = taskRepository.findOpenWithDeadlineBefore(
+                assignedUserId,
+                LocalDateTime.now(),
+                TaskDeadlineCursor.decode(cursor),
+                Limit.of(size + 1));
+
+        boolean hasNext = tasks.size() > size;
+        List<Task> content = tasks.stream()
+                .limit(size)
+                .toList();
+        Task last = hasNext ? content.get(content.size() - 1) : null;
+        String nextCursor = last != null ? TaskDeadlineCursor.encode(last.deadLineDate(), last.id()) : null;
+        return new TaskCursorPage(content, nextCursor);
+    }
+
+
+    /**
+     * Hands every matching task to the sink in id order. The tasks are read by id cursor in pages of
+     * {@link #EXPORT_PAGE_SIZE}, each in its own short read-only transaction, and handed to the sink after it ended,
+     * so a slow client holds no transaction and no connection. Memory use does not grow with the result size.
+     */
+    public void exportTasks(TaskSearchFilter filter, Consumer<Task> sink) {
+        checkDateRanges(filter);
+        long exported = 0;
+        Long afterId = 0L;
+        while (true) {
+            Long from = afterId;
+            List<Task> page = readOnlyTransactionTemplate.execute(status ->
+                    taskRepository.searchAllByFilterAfterId(filter, from, Limit.of(EXPORT_PAGE_SIZE)));
+            page.forEach(sink);
+            exported += page.size();
+            if (page.size() < EXPORT_PAGE_SIZE) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).id();
+        }
+        logService.info(exported + " tasks exported by filter: " + filter);
+    }
+
+
+    // one extra row is fetched to find out whether a next page exists without a COUNT query
+    private static TaskCursorPage toCursorPage(List<Task> tasks, int size) {
+        boolean hasNext = tasks.size() > size;
+        List<Task> content = tasks.stream()
+                .limit(size)
+                .toList();
+        String nextCursor = hasNext ? TaskCursor.encode(content.get(content.size() - 1).id()) : null;
+        return new TaskCursorPage(content, nextCursor);
+    }
+
+
+    private static void checkDateRanges(TaskSearchFilter filter) {
+        if (filter.deadlineFrom() != null && filter.deadlineTo() != null && !filter.deadlineFrom().isBefore(filter.deadlineTo())) {
+            throw new IllegalArgumentException("deadlineFrom must be before deadlineTo");
+        }
+        if (filter.createdFrom() != null && filter.createdTo() != null && !filter.createdFrom().isBefore(filter.createdTo())) {
+            throw new IllegalArgumentException("createdFrom must be before createdTo");
+        }
+        if (filter.doneFrom() != null && filter.doneTo() != null && !filter.doneFrom().isBefore(filter.doneTo())) {
+            throw new IllegalArgumentException("doneFrom must be before doneTo");
+        }
+    }
+
+
+    private static void checkPageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        if (size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must not be greater than " + MAX_PAGE_SIZE);
+        }
+    }
+}
+
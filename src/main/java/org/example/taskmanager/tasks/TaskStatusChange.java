@@ -0,0 +1,9 @@
+package org.example.taskmanager.tasks;
+
+/**
+ * A task right after its status was changed by a conditional UPDATE, with the status it had before.
+ */
+public record TaskStatusChange(
+        TaskEntity task,
+        Status previousStatus
+) {}
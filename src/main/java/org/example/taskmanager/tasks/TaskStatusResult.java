@@ -0,0 +1,36 @@
+package org.example.taskmanager.tasks;
+
+/**
+ * Outcome of a bulk status change for one task id, error is set only for REJECTED.
+ */
+public record TaskStatusResult(
+        Long id,
+        Outcome outcome,
+        String error
+) {
+
+    public enum Outcome {
+        CHANGED,
+        // the task already was in the requested status
+        UNCHANGED,
+        NOT_FOUND,
+        // the change would break a rule, e.g. the IN_PROGRESS limit of the user
+        REJECTED
+    }
+
+    public static TaskStatusResult changed(Long id) {
+        return new TaskStatusResult(id, Outcome.CHANGED, null);
+    }
+
+    public static TaskStatusResult unchanged(Long id) {
+        return new TaskStatusResult(id, Outcome.UNCHANGED, null);
+    }
+
+    public static TaskStatusResult notFound(Long id) {
+        return new TaskStatusResult(id, Outcome.NOT_FOUND, null);
+    }
+
+    public static TaskStatusResult rejected(Long id, String error) {
+        return new TaskStatusResult(id, Outcome.REJECTED, error);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.taskmanager.tasks;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionArgumentTypeResolvers;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.List;
+
+/**
+ * Registers the PostgreSQL full-text functions of the q filter with Hibernate, so q is one more Criteria predicate
+ * next to the other filter fields. Both take the task id path and q:
+ * task_text_matches(id, q) renders search_vector @@ websearch_to_tsquery('simple', q) and
+ * task_text_rank(id, q) renders ts_rank(search_vector, websearch_to_tsquery('simple', q)),
+ * with search_vector of the table the id belongs to. Loaded by Hibernate through META-INF/services.
+ */
+public class TaskTextFunctions implements FunctionContributor {
+
+    static final String TEXT_MATCHES = "task_text_matches";
+    static final String TEXT_RANK = "task_text_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        var registry = functionContributions.getFunctionRegistry();
+        registry.register(TEXT_MATCHES, new SearchVectorFunction(TEXT_MATCHES,
+                "", " @@ websearch_to_tsquery('simple', ", ")", types.resolve(StandardBasicTypes.BOOLEAN)));
+        registry.register(TEXT_RANK, new SearchVectorFunction(TEXT_RANK,
+                "ts_rank(", ", websearch_to_tsquery('simple', ", "))", types.resolve(StandardBasicTypes.FLOAT)));
+    }
+
+
+    // search_vector is not mapped on TaskEntity: it is a PostgreSQL tsvector that H2 cannot create and
+    // no entity load needs, so it is rendered next to the id column with the same table alias.
+    // websearch_to_tsquery accepts any user input: words, "quoted phrases", or, -excluded
+    private static final class SearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+        private final String beforeVector;
+        private final String beforeQuery;
+        private final String afterQuery;
+
+        private SearchVectorFunction(String name, String beforeVector, String beforeQuery, String afterQuery,
+                                     BasicType<?> returnType) {
+            super(name,
+                    StandardArgumentsValidators.exactly(2),
+                    StandardFunctionReturnTypeResolvers.invariant(returnType),
+                    StandardFunctionArgumentTypeResolvers.NULL);
+            this.beforeVector = beforeVector;
+            this.beforeQuery = beforeQuery;
+            this.afterQuery = afterQuery;
+        }
+
+        @Override
+        public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> arguments,
+                           ReturnableType<?> returnType, SqlAstTranslator<?> walker) {
+            ColumnReference id = ((Expression) arguments.get(0)).getColumnReference();
+            if (id == null) {
+                throw new IllegalArgumentException(getName() + " expects the task id path as its first argument");
+            }
+            sqlAppender.appendSql(beforeVector);
+            if (id.getQualifier() != null) {
+                sqlAppender.appendSql(id.getQualifier());
+                sqlAppender.appendSql('.');
+            }
+            sqlAppender.appendSql("search_vector");
+            sqlAppender.appendSql(beforeQuery);
+            arguments.get(1).accept(walker);
+            sqlAppender.appendSql(afterQuery);
+        }
+    }
+}
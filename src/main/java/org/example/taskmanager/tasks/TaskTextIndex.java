@@ -0,0 +1,157 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over task title and description, answers the q filter when the database
+ * is not PostgreSQL (H2 in tests and local runs). It mirrors the search_vector column: words are lower-cased
+ * without stemming, all words of the query must match and title words weigh more than description words.
+ * The operators of websearch_to_tsquery (quoted phrases, or, -word) are not supported, they are read as plain words.
+ * The index is loaded on the first search and then kept up to date by the committed {@link TaskChangedEvent}s
+ * of this instance, changes made by other instances or by hand are not seen.
+ * It is registered only when the datasource URL is not jdbc:postgresql:, PostgreSQL answers q from search_vector
+ * and does not pay for the index or its synchronized listener.
+ */
+@Component
+@ConditionalOnExpression("!'${spring.datasource.url:}'.startsWith('jdbc:postgresql:')")
+public class TaskTextIndex {
+
+    // the ts_rank weights of A (title) and B (description)
+    static final float TITLE_WEIGHT = 1.0f;
+    static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // word -> task id -> weight of the word in that task
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> wordsByTask = new HashMap<>();
+    private boolean loaded;
+
+
+    /**
+     * Ids of the tasks containing every word of the query, best match first, ties by id.
+     */
+    public synchronized List<Long> search(String query) {
+        if (!loaded) {
+            load();
+        }
+        List<String> words = List.copyOf(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        // the rarest word has the shortest posting list, only its tasks can match all words
+        List<Map<Long, Float>> lists = new ArrayList<>();
+        for (String word : words) {
+            Map<Long, Float> list = postings.get(word);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Map::size));
+
+        Map<Long, Float> ranks = new HashMap<>();
+        candidates:
+        for (var candidate : lists.get(0).entrySet()) {
+            float rank = candidate.getValue();
+            for (int i = 1; i < lists.size(); i++) {
+                Float weight = lists.get(i).get(candidate.getKey());
+                if (weight == null) {
+                    continue candidates;
+                }
+                rank += weight;
+            }
+            ranks.put(candidate.getKey(), rank);
+        }
+        return ranks.entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        if (!loaded) {
+            // the load on the first search reads the committed state
+            return;
+        }
+        switch (event.type()) {
+            case CREATED, UPDATED -> index(event.taskId(), event.task().title(), event.task().description());
+            case DELETED -> remove(event.taskId());
+            case STATUS_CHANGED -> {
+                // title and description are unchanged
+            }
+        }
+    }
+
+
+    // the next search loads the index again, tests whose rows are rolled back start from an empty index
+    synchronized void reset() {
+        postings.clear();
+        wordsByTask.clear();
+        loaded = false;
+    }
+
+
+    private void load() {
+        entityManager.createQuery("select t.id, t.title, t.description from TaskEntity t", Object[].class)
+                .getResultList()
+                .forEach(row -> index((Long) row[0], (String) row[1], (String) row[2]));
+        loaded = true;
+    }
+
+
+    private void index(Long taskId, String title, String description) {
+        remove(taskId);
+        Map<String, Float> weights = new HashMap<>();
+        tokenize(title).forEach(word -> weights.merge(word, TITLE_WEIGHT, Float::sum));
+        tokenize(description).forEach(word -> weights.merge(word, DESCRIPTION_WEIGHT, Float::sum));
+        weights.forEach((word, weight) -> postings.computeIfAbsent(word, w -> new HashMap<>()).put(taskId, weight));
+        wordsByTask.put(taskId, weights.keySet());
+    }
+
+
+    private void remove(Long taskId) {
+        Set<String> words = wordsByTask.remove(taskId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Map<Long, Float> list = postings.get(word);
+            list.remove(taskId);
+            if (list.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Stream.of(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.taskmanager.tasks;
+
+public record UserTaskCount(
+        Long assignedUserId,
+        Status status,
+        long taskCount
+) {}
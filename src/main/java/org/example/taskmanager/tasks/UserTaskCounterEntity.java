@@ -0,0 +1,54 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.*;
+
+/**
+ * Number of tasks of one assigned user in one status. The row is locked by every conditional update,
+ * which serializes concurrent transitions of the same user.
+ */
+@Table(name = "user_task_counters")
+@Entity
+@IdClass(UserTaskCounterId.class)
+public class UserTaskCounterEntity {
+
+    @Id
+    @Column(name = "assigned_user_id")
+    private Long assignedUserId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status;
+
+    @Column(name = "task_count", nullable = false)
+    private long taskCount;
+
+
+
+    public UserTaskCounterEntity() {
+    }
+
+    public UserTaskCounterEntity(Long assignedUserId, Status status, long taskCount) {
+        this.assignedUserId = assignedUserId;
+        this.status = status;
+        this.taskCount = taskCount;
+    }
+
+
+
+    public Long getAssignedUserId() {
+        return assignedUserId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount = taskCount;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.taskmanager.tasks;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class UserTaskCounterId implements Serializable {
+
+    private Long assignedUserId;
+    private Status status;
+
+    public UserTaskCounterId() {
+    }
+
+    public UserTaskCounterId(Long assignedUserId, Status status) {
+        this.assignedUserId = assignedUserId;
+        this.status = status;
+    }
+
+    public Long getAssignedUserId() {
+        return assignedUserId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserTaskCounterId that)) return false;
+        return Objects.equals(assignedUserId, that.assignedUserId) && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(assignedUserId, status);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.taskmanager.tasks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compares the maintained user_task_counters with the real task counts and repairs drift,
+ * e.g. after tasks were changed by hand in the database.
+ * The comparison is one grouped query in the database without locks, only the ids of users that look drifted come back
+ * and are recounted under lock, so changes that are in flight while scanning are not mistaken for drift.
+ */
+@Component
+public class UserTaskCounterReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTaskCounterReconciler.class);
+
+    private final UserTaskCounterRepository counterRepository;
+    private final TaskService taskService;
+
+    public UserTaskCounterReconciler(UserTaskCounterRepository counterRepository, TaskService taskService) {
+        this.counterRepository = counterRepository;
+        this.taskService = taskService;
+    }
+
+
+    @Scheduled(
+            initialDelayString = "${tasks.counters.reconcile-interval:PT10M}",
+            fixedDelayString = "${tasks.counters.reconcile-interval:PT10M}")
+    public void reconcile() {
+        int repaired = 0;
+        for (Long assignedUserId : counterRepository.findDriftedAssignedUserIds()) {
+            try {
+                if (taskService.reconcileUserTaskCounters(assignedUserId)) {
+                    repaired++;
+                }
+            } catch (RuntimeException ex) {
+                // e.g. a deadlock with a running transition, the user is checked again on the next run
+                log.warn("Reconciliation of task counters for user ID {} failed: {}", assignedUserId, ex.getMessage());
+            }
+        }
+        if (repaired > 0) {
+            log.warn("Task counters repaired for {} users", repaired);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserTaskCounterRepository extends JpaRepository<UserTaskCounterEntity, UserTaskCounterId> {
+
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_task_counters (assigned_user_id, status, task_count)
+            VALUES (:assignedUserId, :#{#status.name()}, 0)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    void createIfAbsent(
+            @Param("assignedUserId") Long assignedUserId,
+            @Param("status") Status status);
+
+
+    /**
+     * Takes one IN_PROGRESS slot of the user, only if the user has fewer than {@code limit} tasks in progress.
+     * Returns 0 when nothing was updated.
+     */
+    @Modifying
+    @Query("""
+            update UserTaskCounterEntity c
+            set c.taskCount = c.taskCount + 1
+            where c.assignedUserId = :assignedUserId
+            and c.status = org.example.taskmanager.tasks.Status.IN_PROGRESS
+            and c.taskCount < :limit
+            """)
+    int acquireInProgressSlot(
+            @Param("assignedUserId") Long assignedUserId,
+            @Param("limit") long limit);
+
+
+    @Modifying
+    @Query("""
+            update UserTaskCounterEntity c
+            set c.taskCount = c.taskCount + :delta
+            where c.assignedUserId = :assignedUserId
+            and c.status = :status
+            """)
+    int add(
+            @Param("assignedUserId") Long assignedUserId,
+            @Param("status") Status status,
+            @Param("delta") long delta);
+
+
+    @Modifying
+    @Query("""
+            update UserTaskCounterEntity c
+            set c.taskCount = :taskCount
+            where c.assignedUserId = :assignedUserId
+            and c.status = :status
+            """)
+    int set(
+            @Param("assignedUserId") Long assignedUserId,
+            @Param("status") Status status,
+            @Param("taskCount") long taskCount);
+
+
+    List<UserTaskCounterEntity> findAllByAssignedUserId(Long assignedUserId);
+
+
+    /**
+     * Users with at least one counter that differs from the real number of their tasks in that status,
+     * a missing counter row counts as zero. The comparison runs in the database, only the drifted user ids are returned.
+     */
+    @Query(value = """
+            SELECT DISTINCT drift.assigned_user_id
+            FROM (
+                SELECT t."assigned user id" AS assigned_user_id, t.status AS status, COUNT(*) AS difference
+                FROM tasks t
+                GROUP BY t."assigned user id", t.status
+                UNION ALL
+                SELECT c.assigned_user_id, c.status, -c.task_count
+                FROM user_task_counters c
+            ) drift
+            GROUP BY drift.assigned_user_id, drift.status
+            HAVING SUM(drift.difference) <> 0
+            ORDER BY drift.assigned_user_id
+            """, nativeQuery = true)
+    List<Long> findDriftedAssignedUserIds();
+
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select c from UserTaskCounterEntity c
+            where c.assignedUserId = :assignedUserId
+            and c.status = :status
+            """)
+    Optional<UserTaskCounterEntity> lockByAssignedUserIdAndStatus(
+            @Param("assignedUserId") Long assignedUserId,
+            @Param("status") Status status);
+}
@@ -0,0 +1,17 @@
+package org.example.taskmanager.tasks;
+
+import java.util.Map;
+
+/**
+ * Task counts of one assigned user by status, read from the maintained counters instead of counting tasks.
+ */
+public record UserTaskStats(
+        Long assignedUserId,
+        Map<Status, Long> countsByStatus,
+        long total
+) {
+
+    public UserTaskStats(Long assignedUserId, Map<Status, Long> countsByStatus) {
+        this(assignedUserId, countsByStatus, countsByStatus.values().stream().mapToLong(Long::longValue).sum());
+    }
+}
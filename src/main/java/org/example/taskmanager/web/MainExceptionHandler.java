@@ -1,14 +1,20 @@
 package org.example.taskmanager.web;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.apache.catalina.connector.ClientAbortException;
+import org.example.taskmanager.tasks.TaskArchivedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 
 @ControllerAdvice
@@ -28,6 +34,17 @@ public class MainExceptionHandler {
                 .body(errorDto);
     }
 
+    // the client closed the connection while the response was written, e.g. a cancelled export download:
+    // nobody is left to read an answer and it is no server error
+    @ExceptionHandler(exception = {ClientAbortException.class, UncheckedIOException.class})
+    public ResponseEntity<ErrorResponseDto> ClientAbortHandler (Exception ex) {
+        if (!(ex instanceof ClientAbortException) && !(ex.getCause() instanceof ClientAbortException)) {
+            return GenericExceptionHandler(ex);
+        }
+        log.debug("Client closed the connection: {}", ex.getMessage());
+        return null;
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ErrorResponseDto> EntityNotFoundExceptionHandler (EntityNotFoundException ex) {
         log.error("Handle EntityNotFoundException: ", ex);
@@ -56,6 +73,31 @@ public class MainExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(errorDto);
     }
-}
 
+    // archived tasks are read-only, a change of one conflicts with its state
+    @ExceptionHandler(TaskArchivedException.class)
+    public ResponseEntity<ErrorResponseDto> TaskArchivedExceptionHandler (TaskArchivedException ex) {
+        log.error("Handle TaskArchivedException: ", ex);
+        var errorDto = new ErrorResponseDto(
+                "Conflict",
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(errorDto);
+    }
 
+    // a failed If-Match is a failed precondition, otherwise another request changed the task in between
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> OptimisticLockingFailureHandler (OptimisticLockingFailureException ex, WebRequest request) {
+        log.error("Handle OptimisticLockingFailureException: ", ex);
+        boolean conditional = request.getHeader(HttpHeaders.IF_MATCH) != null;
+        var errorDto = new ErrorResponseDto(
+                conditional ? "Precondition failed" : "Conflict",
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                .body(errorDto);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.taskmanager.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.taskmanager.config.ReplicaRoutingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes with read replicas: a request that changes tasks (any method but GET, HEAD and OPTIONS)
+ * reads from the primary, and so do the requests of the same client for maxLag afterwards.
+ * The client is recognized by a cookie holding the time until which it reads from the primary,
+ * maxLag is the replication lag the replicas are expected to stay under.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "tasks-read-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration maxLag;
+
+    public ReadYourWritesFilter(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean writes = !SAFE_METHODS.contains(request.getMethod());
+        if (writes) {
+            // set before the body is written, the response may be committed when the handler returns
+            var cookie = new Cookie(COOKIE_NAME, Long.toString(now + maxLag.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, maxLag.toSeconds()));
+            response.addCookie(cookie);
+        }
+        if (!writes && !pinnedByCookie(request, now)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+
+    private static boolean pinnedByCookie(HttpServletRequest request, long now) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.taskmanager.web;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request ran as the tasks.http.db.statements summary,
+ * tagged like http.server.requests with method and uri template, so a slow endpoint can be told apart from one
+ * that issues too many queries. Hibernate's own counters (hibernate.*) are global, not per request.
+ * Statements of an async dispatch (SSE, streamed export) after the handler returned are not counted.
+ */
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    static final String METRIC_NAME = "tasks.http.db.statements";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountingStatementInspector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = QueryCountingStatementInspector.stop();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("SQL statements executed per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri != null ? uri.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- Indexes for the deadline and creation date filters and for GET /tasks/overdue.
+-- CONCURRENTLY keeps the table writable while the indexes are built, so flyway runs this script outside a transaction.
+
+-- GET /tasks/overdue for all users: seek on (deadline, id) over the open tasks only,
+-- DONE tasks carry the oldest deadlines and would otherwise be read first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_active_deadline
+    ON tasks ("dead line date and time", id)
+    WHERE status <> 'DONE';
+
+-- GET /tasks/overdue?assignedUserId=, the overdue filter of one user
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_assigned_user_active_deadline
+    ON tasks ("assigned user id", "dead line date and time", id)
+    WHERE status <> 'DONE';
+
+-- deadlineFrom / deadlineTo without the overdue flag, DONE tasks included
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_deadline
+    ON tasks ("dead line date and time");
+
+-- createdFrom / createdTo
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_create_date
+    ON tasks ("create date and time");
@@ -0,0 +1,21 @@
+-- DONE tasks older than tasks.archive.after are moved here by TaskArchiver, so the tasks table stays small.
+-- Range-partitioned by month of the done date: the archiver creates the partition of a month before it moves
+-- tasks done in it, and old months can be detached or dropped as a whole without a DELETE.
+-- The primary key of a partitioned table has to contain the partition key.
+
+CREATE TABLE IF NOT EXISTS tasks_archive
+(
+    id                        BIGINT       NOT NULL,
+    "task title"              VARCHAR(255) NOT NULL,
+    "task description"        VARCHAR(255),
+    "creator id"              BIGINT       NOT NULL,
+    "assigned user id"        BIGINT       NOT NULL,
+    status                    VARCHAR(255) NOT NULL CHECK (status IN ('CREATED', 'IN_PROGRESS', 'DONE', 'UPDATED')),
+    "create date and time"    TIMESTAMP(6) NOT NULL,
+    "dead line date and time" TIMESTAMP(6) NOT NULL,
+    priority                  VARCHAR(255) NOT NULL CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH')),
+    "done date and time"      TIMESTAMP(6) NOT NULL,
+    version                   BIGINT       NOT NULL,
+    archived_at               TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, "done date and time")
+) PARTITION BY RANGE ("done date and time");
@@ -0,0 +1,6 @@
+-- The archiver and the doneFrom / doneTo filter select DONE tasks by their done date.
+-- CONCURRENTLY keeps the table writable while the index is built, so flyway runs this script outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_done_date
+    ON tasks ("done date and time")
+    WHERE status = 'DONE';
@@ -0,0 +1,5 @@
+-- When the overdue notification of a task was published. Every instance runs the deadline scheduler,
+-- the instance whose conditional UPDATE sets this column first is the only one that publishes.
+-- A column without default is added without rewriting the table.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS overdue_notified_at TIMESTAMP(6);
@@ -0,0 +1,16 @@
+-- Baseline: the tasks table as it was created by hibernate ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS tasks
+(
+    id                        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    "task title"              VARCHAR(255) NOT NULL,
+    "task description"        VARCHAR(255),
+    "creator id"              BIGINT       NOT NULL,
+    "assigned user id"        BIGINT       NOT NULL,
+    status                    VARCHAR(255) NOT NULL CHECK (status IN ('CREATED', 'IN_PROGRESS', 'DONE', 'UPDATED')),
+    "create date and time"    TIMESTAMP(6) NOT NULL,
+    "dead line date and time" TIMESTAMP(6) NOT NULL,
+    priority                  VARCHAR(255) NOT NULL CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH')),
+    "done date and time"      TIMESTAMP(6)
+);
@@ -0,0 +1,15 @@
+-- Indexes for the TaskRepository queries.
+-- CONCURRENTLY keeps the table writable while the indexes are built, so flyway runs this script outside a transaction.
+
+-- findAllEntitiesByAssignedUserId, countByAssignedUserIdAndStatus, filter by assigned user (+ status)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_assigned_user_status
+    ON tasks ("assigned user id", status);
+
+-- filter by creator (+ priority)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_creator_priority
+    ON tasks ("creator id", priority);
+
+-- filter by status (+ priority) for the active tasks, DONE tasks are the bulk of the table and never searched this way
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_active_status_priority
+    ON tasks (status, priority)
+    WHERE status <> 'DONE';
@@ -0,0 +1,12 @@
+-- IDENTITY ids disable hibernate JDBC batching, ids now come from a sequence handed out in blocks of 50
+-- (hibernate pooled optimizer, allocationSize = 50 on TaskEntity.id).
+
+CREATE SEQUENCE IF NOT EXISTS tasks_seq INCREMENT BY 50;
+
+-- the pooled optimizer treats the fetched value as the upper end of its block,
+-- so the next value has to be at least max(id) + 50 to never reuse an existing id
+SELECT setval('tasks_seq', COALESCE(MAX(id), 0) + 50, false)
+FROM tasks;
+
+ALTER TABLE tasks
+    ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,16 @@
+-- Per-user task counters, the IN_PROGRESS row enforces the work-in-progress limit with one conditional UPDATE.
+
+CREATE TABLE IF NOT EXISTS user_task_counters
+(
+    assigned_user_id BIGINT       NOT NULL,
+    status           VARCHAR(255) NOT NULL CHECK (status IN ('CREATED', 'IN_PROGRESS', 'DONE', 'UPDATED')),
+    task_count       BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (assigned_user_id, status)
+);
+
+INSERT INTO user_task_counters (assigned_user_id, status, task_count)
+SELECT "assigned user id", status, COUNT(*)
+FROM tasks
+WHERE status = 'IN_PROGRESS'
+GROUP BY "assigned user id", status
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,8 @@
+-- user_task_counters now holds a row for every status a user has tasks in, V4 seeded only IN_PROGRESS.
+
+INSERT INTO user_task_counters (assigned_user_id, status, task_count)
+SELECT "assigned user id", status, COUNT(*)
+FROM tasks
+WHERE status <> 'IN_PROGRESS'
+GROUP BY "assigned user id", status
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,4 @@
+-- Optimistic lock column of TaskEntity, also served as the ETag of a task.
+-- A constant default does not rewrite the table on PostgreSQL 11+.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
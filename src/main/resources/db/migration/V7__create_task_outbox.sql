@@ -0,0 +1,15 @@
+-- Transactional outbox: one row per task change, inserted in the transaction of the change
+-- and deleted by the relay once the sink accepted it. Ids come from a sequence handed out in blocks of 50
+-- (allocationSize = 50 on TaskOutboxEntity.id), so the rows of a batch create are inserted in JDBC batches.
+
+CREATE SEQUENCE IF NOT EXISTS task_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS task_outbox
+(
+    id               BIGINT PRIMARY KEY,
+    event_type       VARCHAR(255) NOT NULL CHECK (event_type IN ('CREATED', 'UPDATED', 'STATUS_CHANGED', 'DELETED')),
+    task_id          BIGINT       NOT NULL,
+    assigned_user_id BIGINT       NOT NULL,
+    payload          TEXT         NOT NULL,
+    created_at       TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,11 @@
+-- Full-text search over title and description for the q filter of GET /tasks/filter.
+-- The 'simple' configuration lower-cases words without stemming or stop words, titles are not all English.
+-- Title words get weight A and description words weight B, so ts_rank puts title matches first.
+-- Adding a STORED generated column rewrites the table once under an exclusive lock.
+
+ALTER TABLE tasks
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce("task title", '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce("task description", '')), 'B')
+        ) STORED;
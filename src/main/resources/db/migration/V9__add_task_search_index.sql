@@ -0,0 +1,5 @@
+-- GIN index for search_vector @@ websearch_to_tsquery(...), replaces the sequential scans of LIKE '%...%'.
+-- CONCURRENTLY keeps the table writable while the index is built, so flyway runs this script outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tasks_search_vector
+    ON tasks USING GIN (search_vector);
@@ -0,0 +1,98 @@
+package org.example.taskmanager.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+    private final DataSource replica2 = mock(DataSource.class);
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final Connection replica2Connection = mock(Connection.class);
+
+
+    @AfterEach
+    void unpin() {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+
+    @Test
+    void getConnection_shouldRoundRobinOverReplicas() throws SQLException {
+        givenConnections();
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(10));
+
+        Assertions.assertThat(List.of(dataSource.getConnection(), dataSource.getConnection(), dataSource.getConnection()))
+                .containsExactly(replica1Connection, replica2Connection, replica1Connection);
+        verify(primary, times(0)).getConnection();
+    }
+
+    @Test
+    void getConnection_shouldSkipFailedReplicaUntilRetryAfter() throws SQLException {
+        givenConnections();
+        given(replica1.getConnection()).willThrow(new SQLException("connection refused"));
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(10));
+
+        Assertions.assertThat(List.of(dataSource.getConnection(), dataSource.getConnection(), dataSource.getConnection()))
+                .containsExactly(replica2Connection, replica2Connection, replica2Connection);
+        // marked down after the first failure
+        verify(replica1, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_shouldRetryFailedReplicaAfterRetryAfter() throws SQLException {
+        givenConnections();
+        given(replica1.getConnection()).willThrow(new SQLException("connection refused")).willReturn(replica1Connection);
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1), Duration.ZERO);
+
+        Assertions.assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        Assertions.assertThat(dataSource.getConnection()).isSameAs(replica1Connection);
+    }
+
+    @Test
+    void getConnection_shouldFallBackToPrimary_whenAllReplicasAreDown() throws SQLException {
+        givenConnections();
+        given(replica1.getConnection()).willThrow(new SQLException("connection refused"));
+        given(replica2.getConnection()).willThrow(new IllegalStateException("pool failed to start"));
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(10));
+
+        Assertions.assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        Assertions.assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica1, times(1)).getConnection();
+        verify(replica2, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_shouldUsePrimary_whenPinned() throws SQLException {
+        givenConnections();
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(10));
+
+        ReplicaRoutingDataSource.pinToPrimary();
+
+        Assertions.assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica1, times(0)).getConnection();
+        verify(replica2, times(0)).getConnection();
+    }
+
+
+    private void givenConnections() throws SQLException {
+        given(primary.getConnection()).willReturn(primaryConnection);
+        given(replica1.getConnection()).willReturn(replica1Connection);
+        given(replica2.getConnection()).willReturn(replica2Connection);
+    }
+}
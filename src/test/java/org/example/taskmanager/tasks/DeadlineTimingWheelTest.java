@@ -0,0 +1,84 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+class DeadlineTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+
+    private final DeadlineTimingWheel wheel = new DeadlineTimingWheel(SECOND, 60, START);
+
+
+    @Test
+    void advanceTo_expiresEveryDeadlineNotBeforeItAndAtTheNextTickAtLatest() {
+        // deadlines in the finest wheel, the minute, hour and day wheels
+        long[] offsets = {500, SECOND, 59 * SECOND, MINUTE + 1, 61 * MINUTE, 3 * HOUR + 250, 49 * HOUR};
+        for (int i = 0; i < offsets.length; i++) {
+            wheel.schedule((long) i, START + offsets[i]);
+        }
+
+        List<Long> expiredOrder = new ArrayList<>();
+        for (long now = START; now <= START + 50 * HOUR; now += 250) {
+            for (Long taskId : wheel.advanceTo(now)) {
+                long deadline = START + offsets[taskId.intValue()];
+                Assertions.assertThat(now).isGreaterThanOrEqualTo(deadline).isLessThan(deadline + SECOND);
+                expiredOrder.add(taskId);
+            }
+        }
+
+        Assertions.assertThat(expiredOrder).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L);
+        Assertions.assertThat(wheel.size()).isZero();
+    }
+
+
+    @Test
+    void advanceTo_jumpingFarAheadExpiresAllPassedDeadlinesInTickOrder() {
+        var random = new Random(42);
+        long[] deadlines = new long[1000];
+        for (int id = 0; id < deadlines.length; id++) {
+            deadlines[id] = START + random.nextLong(10 * HOUR);
+            wheel.schedule((long) id, deadlines[id]);
+        }
+
+        List<Long> expired = wheel.advanceTo(START + 5 * HOUR);
+
+        long passed = Arrays.stream(deadlines).filter(deadline -> deadline <= START + 5 * HOUR).count();
+        Assertions.assertThat(expired).hasSize((int) passed);
+        Assertions.assertThat(expired).extracting(id -> Math.ceilDiv(deadlines[id.intValue()], SECOND)).isSorted();
+        Assertions.assertThat(wheel.advanceTo(START + 10 * HOUR)).hasSize(deadlines.length - (int) passed);
+        Assertions.assertThat(wheel.size()).isZero();
+    }
+
+
+    @Test
+    void cancelAndReschedule_replaceTheTimer() {
+        wheel.schedule(1L, START + 10 * SECOND);
+        wheel.schedule(2L, START + 10 * SECOND);
+        wheel.cancel(1L);
+        wheel.schedule(2L, START + 2 * HOUR);
+        wheel.scheduleIfAbsent(2L, START + 5 * SECOND);
+
+        Assertions.assertThat(wheel.advanceTo(START + HOUR)).isEmpty();
+        Assertions.assertThat(wheel.isScheduled(1L)).isFalse();
+        Assertions.assertThat(wheel.advanceTo(START + 2 * HOUR)).containsExactly(2L);
+    }
+
+
+    @Test
+    void schedule_passedDeadlineExpiresOnNextAdvance() {
+        wheel.advanceTo(START + MINUTE);
+        wheel.schedule(1L, START);
+
+        Assertions.assertThat(wheel.advanceTo(START + MINUTE)).containsExactly(1L);
+        Assertions.assertThat(wheel.advanceTo(START + 2 * MINUTE)).isEmpty();
+    }
+}
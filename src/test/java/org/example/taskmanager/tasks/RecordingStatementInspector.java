@@ -0,0 +1,28 @@
+package org.example.taskmanager.tasks;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Collects every SQL statement Hibernate prepares, so tests can assert on the generated SQL.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    public static void clear() {
+        statements.clear();
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.example.taskmanager.tasks.TaskFixtures.assertCountersMatchTasks;
+import static org.example.taskmanager.tasks.TaskFixtures.createTasks;
+
+/**
+ * Archiving against the database: old DONE tasks leave the tasks table and the counters, but are still found by id.
+ */
+@SpringBootTest
+class TaskArchiverTest {
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Test
+    void archive_movesOldDoneTasksAndKeepsThemReadableById() {
+        long userId = 9001L;
+        List<Long> ids = createTasks(taskService, userId, 4);
+        taskService.changeStatuses(new TaskBulkStatusRequest(ids.subList(0, 3), null, Status.DONE));
+        setDoneDate(ids.get(0), LocalDateTime.of(2020, 1, 15, 10, 0));
+        setDoneDate(ids.get(1), LocalDateTime.of(2020, 3, 2, 8, 30));
+        Task archivedBefore = taskRepository.findById(ids.get(1)).map(TaskMapper::fromEntityToDomain).orElseThrow();
+
+        Assertions.assertThat(archiver.archive()).isEqualTo(2);
+
+        Assertions.assertThat(taskRepository.findAllById(ids))
+                .extracting(TaskEntity::getId)
+                .containsExactlyInAnyOrder(ids.get(2), ids.get(3));
+        Assertions.assertThat(archiveRepository.findAllById(ids))
+                .extracting(TaskArchiveEntity::getId)
+                .containsExactlyInAnyOrder(ids.get(0), ids.get(1));
+        Assertions.assertThat(archiveRepository.findTaskById(ids.get(1))).contains(archivedBefore);
+        // not cached before, read from the archive
+        Assertions.assertThat(taskService.getTaskById(ids.get(0)).status()).isEqualTo(Status.DONE);
+        // read-only there, a change conflicts instead of reporting a missing task
+        Assertions.assertThatThrownBy(() -> taskService.deleteTask(ids.get(0)))
+                .isInstanceOf(TaskArchivedException.class);
+        Assertions.assertThatThrownBy(() -> taskService.patchTask(ids.get(1), TaskPatch.builder().title("renamed").build(), null))
+                .isInstanceOf(TaskArchivedException.class);
+
+        // the counters cover the tasks table only
+        Assertions.assertThat(taskService.getUserTaskStats(userId).countsByStatus())
+                .containsEntry(Status.DONE, 1L)
+                .containsEntry(Status.CREATED, 1L);
+        assertCountersMatchTasks(taskService, taskRepository, userId);
+
+        Assertions.assertThat(archiver.archive()).isZero();
+    }
+
+
+    private void setDoneDate(Long id, LocalDateTime doneDateTime) {
+        jdbcTemplate.update("UPDATE tasks SET \"done date and time\" = ? WHERE id = ?", doneDateTime, id);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.taskmanager.tasks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares rows/sec of the single-insert path ({@link TaskService#createNewTask}, one transaction per task
+ * as with one HTTP request per task) with the batched path ({@link TaskService#createNewTasks}).
+ * Runs only with -Dbenchmark=true, against the database configured for tests.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TaskBatchInsertBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskBatchInsertBenchmarkTest.class);
+    private static final int ROWS = 10_000;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void compareSingleAndBatchInsertThroughput() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            tasks.add(Task.builder()
+                    .title("benchmark" + i)
+                    .creatorId(1L)
+                    .assignedUserId(1L + i % 100)
+                    .deadLineDate(LocalDateTime.now().plusDays(5))
+                    .priority(Priority.MEDIUM)
+                    .build());
+        }
+
+        // warm up both paths
+        tasks.subList(0, 500).forEach(taskService::createNewTask);
+        taskService.createNewTasks(tasks.subList(0, 500));
+
+        long start = System.nanoTime();
+        tasks.forEach(taskService::createNewTask);
+        double singleRowsPerSec = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        taskService.createNewTasks(tasks);
+        double batchRowsPerSec = ROWS / ((System.nanoTime() - start) / 1e9);
+
+        log.info("single insert: {} rows/sec, batch insert: {} rows/sec ({}x)",
+                Math.round(singleRowsPerSec), Math.round(batchRowsPerSec),
+                Math.round(batchRowsPerSec / singleRowsPerSec * 10) / 10.0);
+    }
+}
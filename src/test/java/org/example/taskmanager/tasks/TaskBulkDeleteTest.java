@@ -0,0 +1,79 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.taskmanager.tasks.TaskFixtures.assertCountersMatchTasks;
+import static org.example.taskmanager.tasks.TaskFixtures.createTasks;
+
+/**
+ * Bulk deletes against the database, the maintained counters must match the real task counts afterwards.
+ */
+@SpringBootTest
+class TaskBulkDeleteTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+
+
+    @Test
+    void deleteTasks_byFilterDeletesOnlyMatchingTasksOverSeveralChunks() {
+        long userId = 8001L;
+        List<Long> ids = createTasks(taskService, userId, 1500);
+        taskService.changeStatuses(new TaskBulkStatusRequest(ids.subList(0, 1200), null, Status.DONE));
+        taskService.getTaskById(ids.get(0));
+        outboxRepository.deleteAllInBatch();
+
+        var filter = TaskSearchFilter.builder()
+                .assignedUserId(userId)
+                .status(Status.DONE)
+                .doneTo(LocalDateTime.now().plusMinutes(1))
+                .build();
+        TaskBulkDeleteResult result = taskService.deleteTasks(new TaskBulkDeleteRequest(null, filter));
+
+        Assertions.assertThat(result).isEqualTo(new TaskBulkDeleteResult(1200, List.of()));
+        Assertions.assertThat(taskService.getUserTaskStats(userId).countsByStatus())
+                .containsEntry(Status.CREATED, 300L)
+                .containsEntry(Status.DONE, 0L);
+        assertCountersMatchTasks(taskService, taskRepository, userId);
+        Assertions.assertThat(outboxRepository.findAll())
+                .hasSize(1200)
+                .allMatch(row -> row.getEventType() == TaskChangedEvent.Type.DELETED);
+        // the cached task was evicted after the commit of its chunk
+        Assertions.assertThatThrownBy(() -> taskService.getTaskById(ids.get(0)))
+                .isInstanceOf(EntityNotFoundException.class);
+
+        // nothing matches any more, a second run deletes nothing
+        Assertions.assertThat(taskService.deleteTasks(new TaskBulkDeleteRequest(null, filter)).deleted()).isZero();
+    }
+
+    @Test
+    void deleteTasks_byIdsReportsMissingIdsAndKeepsCountersExact() {
+        long userId = 8002L;
+        List<Long> ids = createTasks(taskService, userId, 4);
+        taskService.switchTaskToInProgress(ids.get(1));
+
+        List<Long> toDelete = new ArrayList<>(ids.subList(0, 3));
+        toDelete.add(-1L);
+        TaskBulkDeleteResult result = taskService.deleteTasks(new TaskBulkDeleteRequest(toDelete, null));
+
+        Assertions.assertThat(result).isEqualTo(new TaskBulkDeleteResult(3, List.of(-1L)));
+        Assertions.assertThat(taskRepository.findAllTasksByAssignedUserId(userId))
+                .extracting(Task::id)
+                .containsExactly(ids.get(3));
+        assertCountersMatchTasks(taskService, taskRepository, userId);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compares tasks/sec and SQL statements of switching 10k tasks one call per task
+ * ({@link TaskService#switchTaskToInProgress}, {@link TaskService#getTaskDone}) with {@link TaskService#changeStatuses}.
+ * Tasks are spread over users with 5 tasks each, so none of them hits the IN_PROGRESS limit, the counter rows
+ * of every user are one UPDATE each. DONE is measured once more with 500 tasks per user, like closing a sprint.
+ * Runs only with -Dbenchmark=true, against the database configured for tests.
+ */
+@SpringBootTest(properties = {"spring.cache.type=none", "spring.jpa.show-sql=false"})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TaskBulkStatusBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskBulkStatusBenchmarkTest.class);
+    private static final int TASKS = 10_000;
+    private static final int TASKS_PER_USER = TaskService.MAX_IN_PROGRESS_TASKS;
+    private static final int SPRINT_TASKS_PER_USER = 500;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long nextUserId = 100_000;
+
+    @Test
+    void compareSingleAndBulkStatusThroughput() {
+        // warm up both paths
+        createTasks(500, TASKS_PER_USER).forEach(taskService::switchTaskToInProgress);
+        taskService.changeStatuses(new TaskBulkStatusRequest(createTasks(500, TASKS_PER_USER), null, Status.IN_PROGRESS));
+        createTasks(500, TASKS_PER_USER).forEach(taskService::getTaskDone);
+        taskService.changeStatuses(new TaskBulkStatusRequest(createTasks(500, TASKS_PER_USER), null, Status.DONE));
+
+        report(Status.IN_PROGRESS, TASKS_PER_USER,
+                measure(createTasks(TASKS, TASKS_PER_USER), ids -> ids.forEach(taskService::switchTaskToInProgress)),
+                measure(createTasks(TASKS, TASKS_PER_USER), ids -> taskService.changeStatuses(new TaskBulkStatusRequest(ids, null, Status.IN_PROGRESS))));
+        report(Status.DONE, TASKS_PER_USER,
+                measure(createTasks(TASKS, TASKS_PER_USER), ids -> ids.forEach(taskService::getTaskDone)),
+                measure(createTasks(TASKS, TASKS_PER_USER), ids -> taskService.changeStatuses(new TaskBulkStatusRequest(ids, null, Status.DONE))));
+        report(Status.DONE, SPRINT_TASKS_PER_USER,
+                measure(createTasks(TASKS, SPRINT_TASKS_PER_USER), ids -> ids.forEach(taskService::getTaskDone)),
+                measure(createTasks(TASKS, SPRINT_TASKS_PER_USER), ids -> taskService.changeStatuses(new TaskBulkStatusRequest(ids, null, Status.DONE))));
+    }
+
+
+    // tasks/sec and prepared statements of one run
+    private double[] measure(List<Long> ids, Consumer<List<Long>> change) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        change.accept(ids);
+        double tasksPerSec = ids.size() / ((System.nanoTime() - start) / 1e9);
+        return new double[]{tasksPerSec, statistics.getPrepareStatementCount()};
+    }
+
+    private void report(Status target, int tasksPerUser, double[] single, double[] bulk) {
+        log.info("{} x {}, {} per user: single {} tasks/sec, {} statements; bulk {} tasks/sec, {} statements ({}x)",
+                TASKS, target, tasksPerUser,
+                Math.round(single[0]), Math.round(single[1]),
+                Math.round(bulk[0]), Math.round(bulk[1]),
+                Math.round(bulk[0] / single[0] * 10) / 10.0);
+    }
+
+    private List<Long> createTasks(int count, int tasksPerUser) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i % tasksPerUser == 0) {
+                nextUserId++;
+            }
+            tasks.add(Task.builder()
+                    .title("benchmark" + i)
+                    .creatorId(1L)
+                    .assignedUserId(nextUserId)
+                    .deadLineDate(LocalDateTime.now().plusDays(5))
+                    .priority(Priority.MEDIUM)
+                    .build());
+        }
+        return taskService.createNewTasks(tasks).stream()
+                .map(result -> result.task().id())
+                .toList();
+    }
+}
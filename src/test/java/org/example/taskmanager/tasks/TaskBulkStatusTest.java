@@ -0,0 +1,76 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.taskmanager.tasks.TaskFixtures.assertCountersMatchTasks;
+import static org.example.taskmanager.tasks.TaskFixtures.createTasks;
+
+/**
+ * Bulk status changes against the database, the maintained counters must match the real task counts afterwards.
+ */
+@SpringBootTest
+class TaskBulkStatusTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+
+
+    @Test
+    void changeStatuses_startsUpToLimitThenCompletesAndKeepsCountersExact() {
+        long userId = 7001L;
+        List<Long> ids = createTasks(taskService, userId, 8);
+        taskService.switchTaskToInProgress(ids.get(7));
+
+        List<TaskStatusResult> started = taskService.changeStatuses(
+                new TaskBulkStatusRequest(null, TaskSearchFilter.builder().assignedUserId(userId).build(), Status.IN_PROGRESS));
+
+        Assertions.assertThat(started)
+                .extracting(TaskStatusResult::outcome)
+                .containsExactly(
+                        TaskStatusResult.Outcome.CHANGED, TaskStatusResult.Outcome.CHANGED,
+                        TaskStatusResult.Outcome.CHANGED, TaskStatusResult.Outcome.CHANGED,
+                        TaskStatusResult.Outcome.REJECTED, TaskStatusResult.Outcome.REJECTED,
+                        TaskStatusResult.Outcome.REJECTED, TaskStatusResult.Outcome.UNCHANGED);
+        assertCountersMatchTasks(taskService, taskRepository, userId);
+        Assertions.assertThat(taskService.getTaskById(ids.get(0)).version()).isEqualTo(1L);
+
+        outboxRepository.deleteAllInBatch();
+        List<Long> toComplete = new ArrayList<>(ids.subList(3, 8));
+        toComplete.add(-1L);
+        List<TaskStatusResult> completed = taskService.changeStatuses(new TaskBulkStatusRequest(toComplete, null, Status.DONE));
+
+        Assertions.assertThat(completed)
+                .extracting(TaskStatusResult::outcome)
+                .containsExactly(
+                        TaskStatusResult.Outcome.CHANGED, TaskStatusResult.Outcome.CHANGED,
+                        TaskStatusResult.Outcome.CHANGED, TaskStatusResult.Outcome.CHANGED,
+                        TaskStatusResult.Outcome.CHANGED, TaskStatusResult.Outcome.NOT_FOUND);
+        Assertions.assertThat(taskService.getUserTaskStats(userId).countsByStatus())
+                .containsEntry(Status.CREATED, 0L)
+                .containsEntry(Status.IN_PROGRESS, 3L)
+                .containsEntry(Status.DONE, 5L);
+        assertCountersMatchTasks(taskService, taskRepository, userId);
+        Assertions.assertThat(outboxRepository.findAll())
+                .hasSize(5)
+                .allMatch(row -> row.getEventType() == TaskChangedEvent.Type.STATUS_CHANGED);
+
+        // completing again changes nothing, the done date is kept
+        LocalDateTime doneAt = taskService.getTaskById(ids.get(7)).doneDataTime();
+        Assertions.assertThat(taskService.changeStatuses(new TaskBulkStatusRequest(List.of(ids.get(7)), null, Status.DONE)))
+                .containsExactly(TaskStatusResult.unchanged(ids.get(7)));
+        Assertions.assertThat(taskService.getTaskById(ids.get(7)).doneDataTime()).isEqualTo(doneAt);
+    }
+}
@@ -0,0 +1,238 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class TaskChangeFeedTest {
+
+    private final TaskChangeFeed feed = new TaskChangeFeed(2, 10, Duration.ofMinutes(1), Duration.ofMinutes(30));
+
+
+    @Test
+    void onTaskChanged_sendsOnlyEventsOfSubscribedUser() {
+        var feed = new TaskChangeFeed(16, 10, Duration.ofMinutes(1), Duration.ofMinutes(30));
+        var user2 = new RecordingEmitter();
+        var everyone = new RecordingEmitter();
+        feed.subscribe(2L, user2);
+        feed.subscribe(null, everyone);
+
+        feed.onTaskChanged(TaskChangedEvent.created(task(1L, 2L)));
+        feed.onTaskChanged(TaskChangedEvent.created(task(2L, 5L)));
+        // reassigned from user 2 to user 7, user 2 still has to hear about it
+        feed.onTaskChanged(TaskChangedEvent.updated(task(3L, 7L), 2L));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> everyone.events.size() == 3);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> user2.events.size() == 2);
+        Assertions.assertThat(user2.events).extracting(TaskChangedEvent::taskId).containsExactly(1L, 3L);
+    }
+
+
+    @Test
+    void onTaskChanged_sendsResyncToSubscriberThatCannotKeepUp() {
+        var slow = new RecordingEmitter();
+        slow.sendBlocked = new CountDownLatch(1);
+        var fast = new RecordingEmitter();
+        feed.subscribe(2L, slow);
+        feed.subscribe(2L, fast);
+        feed.onTaskChanged(TaskChangedEvent.created(task(1L, 2L)));
+        // the slow sender is inside send() and holds the write lock, two more events fill its queue
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !slow.events.isEmpty());
+        feed.onTaskChanged(TaskChangedEvent.created(task(2L, 2L)));
+        feed.onTaskChanged(TaskChangedEvent.created(task(3L, 2L)));
+
+        // the overflowing event is dropped without waiting for the write lock
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> feed.onTaskChanged(TaskChangedEvent.created(task(4L, 2L))));
+
+        Assertions.assertThat(feed.subscriberCount()).isEqualTo(2);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> fast.events.size() == 4);
+        slow.sendBlocked.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> slow.resyncs == 1);
+        // the queued events are replaced by the resync, later events are streamed on the same connection
+        feed.onTaskChanged(TaskChangedEvent.created(task(5L, 2L)));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> slow.events.size() == 2);
+        Assertions.assertThat(slow.events).extracting(TaskChangedEvent::taskId).containsExactly(1L, 5L);
+        Assertions.assertThat(slow.completed).isFalse();
+    }
+
+
+    @Test
+    void onTaskChanged_publishesChangesOfTransactionAsOneBatchAfterCommit() {
+        var user2 = new RecordingEmitter();
+        feed.subscribe(2L, user2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // far more events than the queue holds, like a bulk endpoint
+            for (long id = 1; id <= 300; id++) {
+                feed.onTaskChanged(TaskChangedEvent.created(task(id, id % 2 == 0 ? 2L : 5L)));
+            }
+            Assertions.assertThat(user2.events).isEmpty();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> user2.events.size() == 150);
+        Assertions.assertThat(user2.resyncs).isZero();
+        Assertions.assertThat(feed.subscriberCount()).isEqualTo(1);
+    }
+
+
+    @Test
+    void onTaskChanged_doesNotPublishRolledBackChanges() {
+        var user2 = new RecordingEmitter();
+        feed.subscribe(2L, user2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            feed.onTaskChanged(TaskChangedEvent.created(task(1L, 2L)));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        feed.onTaskChanged(TaskChangedEvent.created(task(2L, 2L)));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !user2.events.isEmpty());
+        Assertions.assertThat(user2.events).extracting(TaskChangedEvent::taskId).containsExactly(2L);
+    }
+
+
+    @Test
+    void subscriberIsRemovedWhenClientIsGone() {
+        var gone = new RecordingEmitter();
+        gone.failSend = true;
+        feed.subscribe(2L, gone);
+
+        feed.onTaskChanged(TaskChangedEvent.created(task(1L, 2L)));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> feed.subscriberCount() == 0);
+    }
+
+
+    @Test
+    void subscribe_rejectsSubscribersOverTheLimit() {
+        var limited = new TaskChangeFeed(2, 1, Duration.ofMinutes(1), Duration.ofMinutes(30));
+        limited.subscribe(1L, new RecordingEmitter());
+
+        Assertions.assertThatThrownBy(() -> limited.subscribe(2L, new RecordingEmitter()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+
+    @Test
+    void subscribe_concurrentSubscribersDoNotPassTheLimit() throws Exception {
+        var limited = new TaskChangeFeed(2, 5, Duration.ofMinutes(1), Duration.ofMinutes(30));
+        var start = new CountDownLatch(1);
+        var accepted = new AtomicInteger();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long userId = 1; userId <= 50; userId++) {
+                long subscriberUserId = userId;
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        limited.subscribe(subscriberUserId, new RecordingEmitter());
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException ex) {
+                        // over the limit
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        Assertions.assertThat(accepted).hasValue(5);
+        Assertions.assertThat(limited.subscriberCount()).isEqualTo(5);
+    }
+
+
+    private static Task task(Long id, Long assignedUserId) {
+        return Task.builder()
+                .id(id)
+                .title("task" + id)
+                .assignedUserId(assignedUserId)
+                .status(Status.CREATED)
+                .build();
+    }
+
+
+    // stands in for the HTTP response, records events instead of writing them.
+    // Like ResponseBodyEmitter, send() and complete() share a write lock, and a blocked write ignores interrupts
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final List<TaskChangedEvent> events = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch sendBlocked;
+        private volatile boolean failSend;
+        private volatile int resyncs;
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failSend) {
+                throw new IOException("Broken pipe");
+            }
+            writeLock.lock();
+            try {
+                for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                    if (data.getData() instanceof TaskChangedEvent event) {
+                        events.add(event);
+                    } else if (TaskChangeFeed.RESYNC.equals(data.getData())) {
+                        resyncs++;
+                    }
+                }
+                if (sendBlocked != null) {
+                    awaitUninterruptibly(sendBlocked);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void complete() {
+            writeLock.lock();
+            try {
+                completed = true;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        private static void awaitUninterruptibly(CountDownLatch latch) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    latch.await();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -2,22 +2,34 @@ package org.example.taskmanager.tasks;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
+import org.apache.catalina.connector.ClientAbortException;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.*;
 import static org.mockito.Mockito.verify;
@@ -35,6 +47,9 @@ class TaskControllerTest {
     @MockitoBean
     private TaskService taskService;
 
+    @MockitoBean
+    private TaskChangeFeed taskChangeFeed;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -64,6 +79,7 @@ class TaskControllerTest {
                 .status(Status.CREATED)
                 .deadLineDate(LocalDateTime.now().plusDays(5))
                 .priority(Priority.HIGH)
+                .version(3L)
                 .build();
 
         createdTask2 = Task.builder()
@@ -106,6 +122,27 @@ class TaskControllerTest {
         verify(taskService).getTaskById(10L);
     }
 
+
+    @Test
+    void taskController_getTaskById_returnETagOfVersion() throws Exception {
+        given(taskService.getTaskById(10L)).willReturn(createdTask1);
+
+        mockMvc.perform(get("/tasks/10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void taskController_getTaskById_returnNotModifiedWithoutBodyForMatchingETag() throws Exception {
+        given(taskService.getTaskById(10L)).willReturn(createdTask1);
+
+        mockMvc.perform(get("/tasks/10").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void taskController_getTaskById_returnNotFound() throws Exception {
 
@@ -189,7 +226,7 @@ class TaskControllerTest {
                 .priority(Priority.HIGH)
                 .build();
 
-        given(taskService.editTask(eq(10L), any(Task.class))).willReturn(createdTask1);
+        given(taskService.editTask(eq(10L), any(Task.class), isNull())).willReturn(createdTask1);
 
         mockMvc.perform(put("/tasks/10")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -201,7 +238,95 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.status").value("CREATED"))
                 .andExpect(jsonPath("$.priority").value("HIGH"));
 
-        verify(taskService).editTask(eq(10L), any(Task.class));
+        verify(taskService).editTask(eq(10L), any(Task.class), isNull());
+    }
+
+
+    @Test
+    void taskController_editTask_passIfMatchVersionAndReturnNewETag() throws Exception {
+        given(taskService.editTask(eq(10L), any(Task.class), eq(Set.of(2L)))).willReturn(createdTask1);
+
+        mockMvc.perform(put("/tasks/10")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestTask)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        verify(taskService).editTask(eq(10L), any(Task.class), eq(Set.of(2L)));
+    }
+
+    @Test
+    void taskController_editTask_passEveryStrongTagOfIfMatchList() throws Exception {
+        given(taskService.editTask(eq(10L), any(Task.class), eq(Set.of(1L, 2L)))).willReturn(createdTask1);
+
+        mockMvc.perform(put("/tasks/10")
+                        .header(HttpHeaders.IF_MATCH, "\"1\", W/\"3\", \"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestTask)))
+                .andExpect(status().isOk());
+
+        verify(taskService).editTask(eq(10L), any(Task.class), eq(Set.of(1L, 2L)));
+    }
+
+    @Test
+    void taskController_editTask_returnPreconditionFailedForWeakIfMatch() throws Exception {
+        mockMvc.perform(put("/tasks/10")
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestTask)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(taskService, never()).editTask(anyLong(), any(), any());
+    }
+
+    @Test
+    void taskController_editTask_returnPreconditionFailedForStaleIfMatch() throws Exception {
+        given(taskService.editTask(eq(10L), any(Task.class), eq(Set.of(2L))))
+                .willThrow(new OptimisticLockingFailureException("Task id = 10 has version 3, expected one of [2]"));
+
+        mockMvc.perform(put("/tasks/10")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestTask)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void taskController_editTask_returnConflictForConcurrentUpdateWithoutIfMatch() throws Exception {
+        given(taskService.editTask(eq(10L), any(Task.class), isNull()))
+                .willThrow(new OptimisticLockingFailureException("Row was updated by another transaction"));
+
+        mockMvc.perform(put("/tasks/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestTask)))
+                .andExpect(status().isConflict());
+    }
+
+
+    @Test
+    void taskController_patchTask_returnPatchedTask() throws Exception {
+        given(taskService.patchTask(eq(10L), any(TaskPatch.class), isNull())).willReturn(createdTask1);
+
+        mockMvc.perform(patch("/tasks/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"test1\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(10L))
+                .andExpect(jsonPath("$.title").value("test1"));
+
+        verify(taskService).patchTask(10L, TaskPatch.builder().title("test1").build(), null);
+    }
+
+
+    @Test
+    void taskController_patchTask_returnBadRequestForInvalidField() throws Exception {
+        mockMvc.perform(patch("/tasks/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assignedUserId\": -1, \"title\": \" \"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).patchTask(anyLong(), any(), any());
     }
 
 
@@ -228,6 +353,16 @@ class TaskControllerTest {
         verify(taskService).deleteTask(id);
     }
 
+    @Test
+    void taskController_deleteTask_returnConflictForArchivedTask() throws Exception {
+        Long id = 10L;
+        willThrow(new TaskArchivedException(id)).given(taskService).deleteTask(id);
+
+        mockMvc.perform(delete("/tasks/{id}", id))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detailedMessage").value("Task id = 10 is archived and cannot be changed"));
+    }
+
 
     @Test
     void taskController_switchTaskToInProgress_returnStringAndStatusOk() throws Exception {
@@ -285,6 +420,25 @@ class TaskControllerTest {
     }
 
 
+    @Test
+    void taskController_getUserTaskStats_returnCountsByStatus() throws Exception {
+        Long assignedUserId = 2L;
+        Map<Status, Long> counts = new EnumMap<>(Map.of(
+                Status.CREATED, 3L, Status.IN_PROGRESS, 2L, Status.DONE, 0L, Status.UPDATED, 1L));
+
+        given(taskService.getUserTaskStats(assignedUserId)).willReturn(new UserTaskStats(assignedUserId, counts));
+
+        mockMvc.perform(get("/tasks/user/{assignedUserId}/stats", assignedUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignedUserId").value(2L))
+                .andExpect(jsonPath("$.countsByStatus.IN_PROGRESS").value(2))
+                .andExpect(jsonPath("$.countsByStatus.DONE").value(0))
+                .andExpect(jsonPath("$.total").value(6));
+
+        verify(taskService).getUserTaskStats(assignedUserId);
+    }
+
+
     @Test
     void taskController_getTaskDone_returnCompletedTask() throws Exception {
         Long id = 10L;
@@ -353,4 +507,285 @@ class TaskControllerTest {
         response.andExpect(status().isNotFound());
         verify(taskService).searchAllByFilter(any(TaskSearchFilter.class));
     }
+
+
+    @Test
+    void taskController_searchAllByFilter_passesFullTextQuery() throws Exception {
+        given(taskService.searchAllByFilter(any(TaskSearchFilter.class)))
+                .willReturn(mockTasks);
+
+        ResultActions response = mockMvc.perform(get("/tasks/filter")
+                .param("assignedUserId", "2")
+                .param("q", "release notes"));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(taskService).searchAllByFilter(TaskSearchFilter.builder().assignedUserId(2L).q("release notes").build());
+    }
+
+
+    @Test
+    void taskController_searchAllByFilter_parsesDateRangesAndOverdueFlag() throws Exception {
+        given(taskService.searchAllByFilter(any(TaskSearchFilter.class)))
+                .willReturn(mockTasks);
+
+        ResultActions response = mockMvc.perform(get("/tasks/filter")
+                .param("deadlineFrom", "2025-01-01T00:00:00")
+                .param("deadlineTo", "2025-02-01T00:00:00")
+                .param("createdFrom", "2024-12-01T08:30:00")
+                .param("overdue", "true"));
+
+        response.andExpect(status().isOk());
+
+        verify(taskService).searchAllByFilter(TaskSearchFilter.builder()
+                .deadlineFrom(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .deadlineTo(LocalDateTime.of(2025, 2, 1, 0, 0))
+                .createdFrom(LocalDateTime.of(2024, 12, 1, 8, 30))
+                .overdue(true)
+                .build());
+    }
+
+    @Test
+    void taskController_getOverdueTasks_returnCursorPage() throws Exception {
+        String nextCursor = TaskDeadlineCursor.encode(LocalDateTime.of(2025, 1, 1, 10, 0), 11L);
+        given(taskService.getOverdueTasksAfter(2L, null, 20))
+                .willReturn(new TaskCursorPage(mockTasks, nextCursor));
+
+        ResultActions response = mockMvc.perform(get("/tasks/overdue")
+                .param("assignedUserId", "2")
+                .param("size", "20"));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+
+        verify(taskService).getOverdueTasksAfter(2L, null, 20);
+    }
+
+
+    @Test
+    void taskController_getAllTasksByCursor_returnCursorPage() throws Exception {
+        given(taskService.getAllTasksAfter("", 2))
+                .willReturn(new TaskCursorPage(mockTasks, TaskCursor.encode(11L)));
+
+        ResultActions response = mockMvc.perform(get("/tasks")
+                .param("cursor", "")
+                .param("size", "2"));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").value(TaskCursor.encode(11L)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(taskService).getAllTasksAfter("", 2);
+        verify(taskService, never()).getAllTasks(any(Pageable.class));
+    }
+
+    @Test
+    void taskController_searchAllByFilterAndCursor_returnCursorPage() throws Exception {
+        given(taskService.searchAllByFilterAfter(any(TaskSearchFilter.class), eq("abc")))
+                .willReturn(new TaskCursorPage(mockTasks, null));
+
+        ResultActions response = mockMvc.perform(get("/tasks/filter")
+                .param("creatorId", "1")
+                .param("cursor", "abc"));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+        verify(taskService).searchAllByFilterAfter(any(TaskSearchFilter.class), eq("abc"));
+        verify(taskService, never()).searchAllByFilter(any(TaskSearchFilter.class));
+    }
+
+
+    @Test
+    void taskController_searchAllByFilter_bindsPagingAndReturnsBadRequestForInvalidDate() throws Exception {
+        given(taskService.searchAllByFilter(any(TaskSearchFilter.class))).willReturn(mockTasks);
+
+        mockMvc.perform(get("/tasks/filter").param("priority", "HIGH").param("pageSize", "5").param("pageNum", "2"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/filter").param("deadlineFrom", "tomorrow"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService).searchAllByFilter(TaskSearchFilter.builder()
+                .priority(Priority.HIGH)
+                .pageSize(5)
+                .pageNum(2)
+                .build());
+        verifyNoMoreInteractions(taskService);
+    }
+
+
+    @Test
+    void taskController_searchAllByFilterAndCursor_andExport_passFullTextQuery() throws Exception {
+        given(taskService.searchAllByFilterAfter(any(TaskSearchFilter.class), eq("")))
+                .willReturn(new TaskCursorPage(mockTasks, null));
+        var filter = TaskSearchFilter.builder().q("release notes").build();
+
+        mockMvc.perform(get("/tasks/filter").param("q", "release notes").param("cursor", ""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/export").param("q", "release notes"))
+                .andExpect(status().isOk());
+
+        verify(taskService).searchAllByFilterAfter(filter, "");
+        verify(taskService).exportTasks(eq(filter), any());
+    }
+
+
+    @Test
+    void taskController_createNewTasks_returnPerItemResults() throws Exception {
+        given(taskService.createNewTasks(anyList()))
+                .willReturn(List.of(
+                        TaskBatchResult.created(0, createdTask1),
+                        TaskBatchResult.rejected(1, "title: must not be blank")));
+
+        ResultActions response = mockMvc.perform(post("/tasks/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(requestTask, requestTask))));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].task.id").value(10L))
+                .andExpect(jsonPath("$[1].error").value("title: must not be blank"));
+
+        verify(taskService).createNewTasks(anyList());
+    }
+
+
+    @Test
+    void taskController_changeStatuses_returnPerIdOutcomes() throws Exception {
+        var request = new TaskBulkStatusRequest(List.of(1L, 2L), null, Status.DONE);
+        given(taskService.changeStatuses(request))
+                .willReturn(List.of(TaskStatusResult.changed(1L), TaskStatusResult.notFound(2L)));
+
+        ResultActions response = mockMvc.perform(post("/tasks/bulk/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].outcome").value("CHANGED"))
+                .andExpect(jsonPath("$[1].outcome").value("NOT_FOUND"));
+
+        verify(taskService).changeStatuses(request);
+    }
+
+    @Test
+    void taskController_changeStatuses_returnBadRequestWithoutStatus() throws Exception {
+        mockMvc.perform(post("/tasks/bulk/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).changeStatuses(any());
+    }
+
+    @Test
+    void taskController_deleteTasks_returnDeletedCount() throws Exception {
+        var request = new TaskBulkDeleteRequest(List.of(1L, 2L), null);
+        given(taskService.deleteTasks(request)).willReturn(new TaskBulkDeleteResult(1, List.of(2L)));
+
+        ResultActions response = mockMvc.perform(delete("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(2L));
+
+        verify(taskService).deleteTasks(request);
+    }
+
+    @Test
+    void taskController_deleteTasks_returnBadRequestForEmptyFilter() throws Exception {
+        given(taskService.deleteTasks(any()))
+                .willThrow(new IllegalArgumentException("Filter must contain at least one condition, an empty filter would delete all tasks"));
+
+        mockMvc.perform(delete("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{}}"))
+                .andExpect(status().isBadRequest());
+    }
+
+
+    @Test
+    void taskController_streamTaskChanges_subscribesWithUserFilter() throws Exception {
+        given(taskChangeFeed.subscribe(2L)).willReturn(new SseEmitter());
+
+        mockMvc.perform(get("/tasks/stream")
+                        .param("assignedUserId", "2")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(taskChangeFeed).subscribe(2L);
+    }
+
+
+    @Test
+    void taskController_exportTasks_writesNdjsonLines() throws Exception {
+        willAnswer(inv -> {
+            Consumer<Task> sink = inv.getArgument(1);
+            mockTasks.forEach(sink);
+            return null;
+        }).given(taskService).exportTasks(any(TaskSearchFilter.class), any());
+
+        MvcResult result = mockMvc.perform(get("/tasks/export").param("assignedUserId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        Assertions.assertThat(lines).hasSize(2);
+        Assertions.assertThat(objectMapper.readValue(lines[1], Task.class).id()).isEqualTo(11L);
+    }
+
+    @Test
+    void taskController_exportTasks_writesCsvWithHeaderAndEscaping() throws Exception {
+        var taskWithComma = Task.builder()
+                .id(12L)
+                .title("fix, then \"ship\"")
+                .creatorId(1L)
+                .assignedUserId(2L)
+                .status(Status.CREATED)
+                .priority(Priority.LOW)
+                .build();
+        willAnswer(inv -> {
+            Consumer<Task> sink = inv.getArgument(1);
+            sink.accept(taskWithComma);
+            return null;
+        }).given(taskService).exportTasks(any(TaskSearchFilter.class), any());
+
+        MvcResult result = mockMvc.perform(get("/tasks/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        Assertions.assertThat(lines[0]).startsWith("id,title,description");
+        Assertions.assertThat(lines[1]).startsWith("12,\"fix, then \"\"ship\"\"\",,1,2,CREATED,,,LOW,");
+    }
+
+    @Test
+    void taskController_exportTasks_clientAbortIsNoServerError() throws Exception {
+        willThrow(new UncheckedIOException(new ClientAbortException("Broken pipe")))
+                .given(taskService).exportTasks(any(TaskSearchFilter.class), any());
+
+        mockMvc.perform(get("/tasks/export"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").doesNotExist());
+    }
+
+    @Test
+    void taskController_exportTasks_returnBadRequestForUnknownFormat() throws Exception {
+        mockMvc.perform(get("/tasks/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).exportTasks(any(TaskSearchFilter.class), any());
+    }
+
 }
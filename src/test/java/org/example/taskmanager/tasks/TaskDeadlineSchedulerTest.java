@@ -0,0 +1,151 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskDeadlineSchedulerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MutableClock clock = new MutableClock(START);
+
+    private TaskDeadlineScheduler scheduler;
+
+    @BeforeEach
+    void init() {
+        scheduler = new TaskDeadlineScheduler(taskRepository, eventPublisher, transactionManager, clock, Duration.ofHours(1), 2);
+    }
+
+
+    @Test
+    void tick_loadsWindowInBatchesAndPublishesPassedDeadlinesAfterClaimingThem() {
+        var first = task(1L, START.plusMinutes(10), Status.CREATED);
+        var second = task(2L, START.plusMinutes(10), Status.IN_PROGRESS);
+        var third = task(3L, START.plusMinutes(30), Status.CREATED);
+        when(taskRepository.findOpenWithDeadlineBefore(isNull(), eq(START.plusHours(1)), any(TaskDeadlineCursor.class), eq(Limit.of(2))))
+                .thenReturn(
+                        List.of(TaskMapper.fromEntityToDomain(first), TaskMapper.fromEntityToDomain(second)),
+                        List.of(TaskMapper.fromEntityToDomain(third)));
+
+        scheduler.tick();
+        Assertions.assertThat(scheduler.scheduledCount()).isEqualTo(3);
+        verify(taskRepository).findOpenWithDeadlineBefore(null, START.plusHours(1), new TaskDeadlineCursor(START, 0L), Limit.of(2));
+        verify(taskRepository).findOpenWithDeadlineBefore(null, START.plusHours(1), new TaskDeadlineCursor(START.plusMinutes(10), 2L), Limit.of(2));
+
+        // task 2 was completed or already claimed by another instance, the claim drops it
+        clock.set(START.plusMinutes(10));
+        when(taskRepository.claimOverdueByIds(List.of(1L, 2L), START.plusMinutes(10)))
+                .thenReturn(List.of(new TaskOverdueEvent(1L, 2L, START.plusMinutes(10))));
+        scheduler.tick();
+
+        verify(eventPublisher).publishEvent(new TaskOverdueEvent(1L, 2L, START.plusMinutes(10)));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        Assertions.assertThat(scheduler.scheduledCount()).isEqualTo(1);
+        verify(transactionManager).commit(any());
+    }
+
+
+    @Test
+    void tick_loadsNextWindowWhenHalfOfItPassed() {
+        when(taskRepository.findOpenWithDeadlineBefore(isNull(), any(LocalDateTime.class), any(TaskDeadlineCursor.class), eq(Limit.of(2))))
+                .thenReturn(List.of());
+
+        scheduler.tick();
+        clock.set(START.plusMinutes(29));
+        scheduler.tick();
+        clock.set(START.plusMinutes(30));
+        scheduler.tick();
+
+        verify(taskRepository).findOpenWithDeadlineBefore(null, START.plusHours(1), new TaskDeadlineCursor(START, 0L), Limit.of(2));
+        verify(taskRepository).findOpenWithDeadlineBefore(null, START.plusMinutes(90), new TaskDeadlineCursor(START.plusHours(1), 0L), Limit.of(2));
+        verify(taskRepository, never()).claimOverdueByIds(anyList(), any(LocalDateTime.class));
+    }
+
+
+    @Test
+    void onTaskChanged_reschedulesAndCancelsTimers() {
+        when(taskRepository.findOpenWithDeadlineBefore(isNull(), any(LocalDateTime.class), any(TaskDeadlineCursor.class), eq(Limit.of(2))))
+                .thenReturn(List.of());
+        scheduler.tick();
+
+        scheduler.onTaskChanged(TaskChangedEvent.created(TaskMapper.fromEntityToDomain(task(1L, START.plusMinutes(5), Status.CREATED))));
+        scheduler.onTaskChanged(TaskChangedEvent.created(TaskMapper.fromEntityToDomain(task(2L, START.plusMinutes(5), Status.CREATED))));
+        scheduler.onTaskChanged(TaskChangedEvent.created(TaskMapper.fromEntityToDomain(task(3L, START.plusDays(3), Status.CREATED))));
+        // deadline moved beyond the window
+        scheduler.onTaskChanged(TaskChangedEvent.updated(TaskMapper.fromEntityToDomain(task(1L, START.plusDays(1), Status.UPDATED)), 2L));
+        scheduler.onTaskChanged(TaskChangedEvent.statusChanged(TaskMapper.fromEntityToDomain(task(2L, START.plusMinutes(5), Status.DONE))));
+
+        Assertions.assertThat(scheduler.scheduledCount()).isZero();
+        clock.set(START.plusMinutes(6));
+        scheduler.tick();
+        verify(taskRepository, never()).claimOverdueByIds(anyList(), any(LocalDateTime.class));
+    }
+
+
+    private static TaskEntity task(Long id, LocalDateTime deadline, Status status) {
+        return new TaskEntity(id, "task" + id, null, 1L, 2L, status, START.minusDays(1), deadline, Priority.LOW, null);
+    }
+
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(LocalDateTime start) {
+            set(start);
+        }
+
+        private void set(LocalDateTime dateTime) {
+            instant = dateTime.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
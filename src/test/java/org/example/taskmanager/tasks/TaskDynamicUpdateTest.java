@@ -0,0 +1,81 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import org.assertj.core.api.Assertions;
+import org.example.taskmanager.config.DatabaseDialect;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.example.taskmanager.tasks.RecordingStatementInspector")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(DatabaseDialect.class)
+class TaskDynamicUpdateTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+
+    @Test
+    void applyPatch_updatesOnlyChangedColumnsOfManagedEntity() {
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 10, 0);
+        Long id = taskRepository.saveAndFlush(new TaskEntity(null,"TestTask1", "some1",1L,1L,
+                Status.CREATED, created, created.plusDays(5), Priority.LOW,null)).getId();
+        entityManager.clear();
+
+        var entity = taskRepository.findById(id).orElseThrow();
+        RecordingStatementInspector.clear();
+
+        boolean changed = TaskMapper.applyPatch(TaskPatch.builder()
+                .title("newTitle")
+                .priority(Priority.LOW)
+                .build(), entity);
+        entity.setStatus(Status.UPDATED);
+        taskRepository.flush();
+
+        Assertions.assertThat(changed).isTrue();
+        List<String> statements = RecordingStatementInspector.statements();
+        Assertions.assertThat(statements).hasSize(1);
+        Assertions.assertThat(statements.get(0))
+                .startsWith("update tasks set")
+                .contains("\"task title\"=?", "status=?")
+                .doesNotContain("priority", "\"task description\"", "\"create date and time\"");
+
+        entityManager.clear();
+        var reloaded = taskRepository.findById(id).orElseThrow();
+        Assertions.assertThat(reloaded.getTitle()).isEqualTo("newTitle");
+        Assertions.assertThat(reloaded.getCreateDateTime()).isEqualTo(created);
+    }
+
+
+    @Test
+    void applyPatch_withoutChangesWritesNothing() {
+        LocalDateTime created = LocalDateTime.of(2025, 1, 1, 10, 0);
+        Long id = taskRepository.saveAndFlush(new TaskEntity(null,"TestTask1", "some1",1L,1L,
+                Status.CREATED, created, created.plusDays(5), Priority.LOW,null)).getId();
+        entityManager.clear();
+
+        var entity = taskRepository.findById(id).orElseThrow();
+        RecordingStatementInspector.clear();
+
+        boolean changed = TaskMapper.applyPatch(TaskPatch.builder()
+                .title("TestTask1")
+                .assignedUserId(1L)
+                .build(), entity);
+        taskRepository.flush();
+
+        Assertions.assertThat(changed).isFalse();
+        Assertions.assertThat(RecordingStatementInspector.statements()).isEmpty();
+    }
+}
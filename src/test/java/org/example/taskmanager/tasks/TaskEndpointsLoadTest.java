@@ -0,0 +1,150 @@
+package org.example.taskmanager.tasks;
+
+import org.example.taskmanager.TaskmanagerApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load harness for the /tasks read endpoints: starts the application once with platform threads and once with
+ * virtual threads and drives both with the same number of concurrent clients, then logs throughput and latency percentiles.
+ * Runs only with -Dloadtest=true (clients and duration can be set with -Dloadtest.clients and -Dloadtest.seconds).
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class TaskEndpointsLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEndpointsLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 400);
+    private static final int SECONDS = Integer.getInteger("loadtest.seconds", 20);
+    private static final int USERS = 50;
+
+    private record Result(String mode, long requests, long errors, double throughput, double p50, double p99) {}
+
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        for (Result result : List.of(platform, virtual)) {
+            log.info("{} threads: {} requests ({} errors), {} req/s, p50 {} ms, p99 {} ms",
+                    result.mode(), result.requests(), result.errors(), Math.round(result.throughput()),
+                    result.p50(), result.p99());
+        }
+    }
+
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskmanagerApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.org.example.taskmanager.tasks.TaskController=WARN",
+                        "logging.level.org.example.taskmanager.tasks.TaskService=WARN")
+                .run()) {
+
+            seed(context.getBean(TaskService.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return drive(virtualThreads ? "virtual" : "platform", "http://localhost:" + port);
+        }
+    }
+
+    private static void seed(TaskService taskService) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            tasks.add(Task.builder()
+                    .title("load" + i)
+                    .creatorId(1L)
+                    .assignedUserId(1L + i % USERS)
+                    .deadLineDate(LocalDateTime.now().plusDays(5))
+                    .priority(Priority.values()[i % Priority.values().length])
+                    .build());
+        }
+        taskService.createNewTasks(tasks);
+    }
+
+    private static Result drive(String mode, String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<String> paths = List.of("/tasks?page=3&size=20", "/tasks/user/%d", "/tasks?cursor=&size=20", "/tasks/filter?assignedUserId=%d&status=CREATED");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(SECONDS).toNanos();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> clients = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientId = c;
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        String path = paths.get(count % paths.size()).formatted(1 + (clientId + count) % USERS);
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(
+                                    HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = clients.stream()
+                .flatMapToLong(f -> {
+                    try {
+                        return Arrays.stream(f.get());
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .sorted()
+                .toArray();
+        return new Result(mode, all.length, errors.get(), all.length / elapsedSeconds,
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99));
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return Math.round(sortedNanos[Math.max(index, 0)] / 1e4) / 100.0;
+    }
+}
@@ -0,0 +1,258 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityManager;
+import org.assertj.core.api.Assertions;
+import org.example.taskmanager.config.DatabaseDialect;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+@DataJpaTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.example.taskmanager.tasks.RecordingStatementInspector")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({TaskTextIndex.class, DatabaseDialect.class})
+class TaskFilterRepositoryImplTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TaskTextIndex textIndex;
+
+    @BeforeEach
+    void init() {
+        RecordingStatementInspector.clear();
+        textIndex.reset();
+    }
+
+
+    // every combination of the four filter fields, bit i set = field i present
+    static Stream<Arguments> filterCombinations() {
+        return IntStream.range(0, 16).mapToObj(mask -> Arguments.of(TaskSearchFilter.builder()
+                .creatorId((mask & 1) != 0 ? 1L : null)
+                .assignedUserId((mask & 2) != 0 ? 2L : null)
+                .status((mask & 4) != 0 ? Status.CREATED : null)
+                .priority((mask & 8) != 0 ? Priority.HIGH : null)
+                .build()));
+    }
+
+
+    @ParameterizedTest
+    @MethodSource("filterCombinations")
+    void searchAllByFilter_GeneratesPredicatesOnlyForPresentFields(TaskSearchFilter filter) {
+        taskRepository.searchAllByFilter(filter, Pageable.ofSize(10));
+
+        String sql = singleSelect();
+        Assertions.assertThat(sql).doesNotContain("is null");
+        assertPredicate(sql, "\"creator id\"=?", filter.creatorId() != null);
+        assertPredicate(sql, "\"assigned user id\"=?", filter.assignedUserId() != null);
+        assertPredicate(sql, "status=?", filter.status() != null);
+        assertPredicate(sql, "priority=?", filter.priority() != null);
+        if (filter.creatorId() == null && filter.assignedUserId() == null
+                && filter.status() == null && filter.priority() == null) {
+            Assertions.assertThat(sql).doesNotContain(" where ");
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("filterCombinations")
+    void searchAllByFilterAfterId_GeneratesSeekPredicateAndPresentFieldsOnly(TaskSearchFilter filter) {
+        taskRepository.searchAllByFilterAfterId(filter, 0L, Limit.of(10));
+
+        String sql = singleSelect();
+        Assertions.assertThat(sql)
+                .doesNotContain("is null")
+                .contains(".id>?")
+                .contains("order by")
+                .doesNotContain("offset");
+        assertPredicate(sql, "\"creator id\"=?", filter.creatorId() != null);
+        assertPredicate(sql, "\"assigned user id\"=?", filter.assignedUserId() != null);
+        assertPredicate(sql, "status=?", filter.status() != null);
+        assertPredicate(sql, "priority=?", filter.priority() != null);
+    }
+
+    @Test
+    void searchAllByFilter_AppliesOffsetPagingWithoutCountQuery() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            taskRepository.save(new TaskEntity(null,"TestTask" + i, null,1L,1L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null));
+        }
+        taskRepository.flush();
+        RecordingStatementInspector.clear();
+
+        List<Task> found = taskRepository.searchAllByFilter(
+                TaskSearchFilter.builder().creatorId(1L).build(), Pageable.ofSize(2).withPage(2));
+
+        Assertions.assertThat(found).hasSize(1);
+        Assertions.assertThat(RecordingStatementInspector.statements())
+                .noneMatch(sql -> sql.contains("count("));
+    }
+
+
+    @Test
+    void searchAllByFilter_AppliesHalfOpenDateRangesAndOverdueFlag() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        var overdue = taskRepository.save(new TaskEntity(null, "overdue", null, 7L, 7L, Status.IN_PROGRESS, now.minusDays(10), now.minusDays(1), Priority.LOW, null));
+        var doneLate = taskRepository.save(new TaskEntity(null, "done late", null, 7L, 7L, Status.DONE, now.minusDays(10), now.minusDays(2), Priority.LOW, now));
+        var upcoming = taskRepository.save(new TaskEntity(null, "upcoming", null, 7L, 7L, Status.CREATED, now.minusDays(3), now.plusDays(1), Priority.LOW, null));
+        taskRepository.flush();
+        RecordingStatementInspector.clear();
+
+        Assertions.assertThat(taskRepository.searchAllByFilter(
+                        TaskSearchFilter.builder().creatorId(7L).overdue(true).build(), Pageable.unpaged()))
+                .extracting(Task::id).containsExactly(overdue.getId());
+        Assertions.assertThat(singleSelect()).contains("status<>'DONE'");
+
+        Assertions.assertThat(taskRepository.searchAllByFilter(
+                        TaskSearchFilter.builder().creatorId(7L).overdue(false).build(), Pageable.unpaged()))
+                .extracting(Task::id).containsExactlyInAnyOrder(doneLate.getId(), upcoming.getId());
+
+        Assertions.assertThat(taskRepository.searchAllByFilter(
+                        TaskSearchFilter.builder().creatorId(7L).deadlineFrom(now.minusDays(2)).deadlineTo(now.minusDays(1)).build(), Pageable.unpaged()))
+                .extracting(Task::id).containsExactly(doneLate.getId());
+
+        Assertions.assertThat(taskRepository.searchAllByFilter(
+                        TaskSearchFilter.builder().creatorId(7L).createdFrom(now.minusDays(3)).build(), Pageable.unpaged()))
+                .extracting(Task::id).containsExactly(upcoming.getId());
+    }
+
+    @Test
+    void findOpenWithDeadlineBefore_PagesByDeadlineThenId() {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        LocalDateTime deadline = now.minusDays(1);
+        var first = taskRepository.save(new TaskEntity(null, "first", null, 1L, 8L, Status.CREATED, now.minusDays(10), deadline.minusHours(1), Priority.LOW, null));
+        var second = taskRepository.save(new TaskEntity(null, "second", null, 1L, 8L, Status.UPDATED, now.minusDays(10), deadline, Priority.LOW, null));
+        var third = taskRepository.save(new TaskEntity(null, "third", null, 1L, 8L, Status.IN_PROGRESS, now.minusDays(10), deadline, Priority.LOW, null));
+        taskRepository.save(new TaskEntity(null, "done", null, 1L, 8L, Status.DONE, now.minusDays(10), deadline.minusDays(1), Priority.LOW, now));
+        taskRepository.save(new TaskEntity(null, "not yet", null, 1L, 8L, Status.CREATED, now.minusDays(10), now.plusDays(1), Priority.LOW, null));
+        taskRepository.save(new TaskEntity(null, "other user", null, 1L, 9L, Status.CREATED, now.minusDays(10), deadline, Priority.LOW, null));
+        taskRepository.flush();
+
+        List<Task> firstPage = taskRepository.findOpenWithDeadlineBefore(8L, now, null, Limit.of(2));
+        Assertions.assertThat(firstPage).extracting(Task::id).containsExactly(first.getId(), second.getId());
+
+        List<Task> secondPage = taskRepository.findOpenWithDeadlineBefore(8L, now, new TaskDeadlineCursor(deadline, second.getId()), Limit.of(2));
+        Assertions.assertThat(secondPage).extracting(Task::id).containsExactly(third.getId());
+    }
+
+    @Test
+    void searchAllByFilter_WithTextRanksTitleMatchesFirstAndAppliesOtherFields() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        var inDescription = taskRepository.save(new TaskEntity(null, "Prepare", "write the release notes", 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        var inTitle = taskRepository.save(new TaskEntity(null, "Release notes", null, 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.save(new TaskEntity(null, "Release notes", null, 1L, 2L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.save(new TaskEntity(null, "Release", "only one of the words", 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.flush();
+
+        List<Task> found = taskRepository.searchAllByFilter(
+                TaskSearchFilter.builder().assignedUserId(1L).q("NOTES release").build(), Pageable.ofSize(10));
+
+        Assertions.assertThat(found).extracting(Task::id).containsExactly(inTitle.getId(), inDescription.getId());
+
+        List<Task> secondPage = taskRepository.searchAllByFilter(
+                TaskSearchFilter.builder().assignedUserId(1L).q("notes release").build(), Pageable.ofSize(1).withPage(1));
+
+        Assertions.assertThat(secondPage).extracting(Task::id).containsExactly(inDescription.getId());
+
+        List<Task> textOnly = taskRepository.searchAllByFilter(
+                TaskSearchFilter.builder().q("notes").build(), Pageable.ofSize(2).withPage(1));
+
+        Assertions.assertThat(textOnly).extracting(Task::id).containsExactly(inDescription.getId());
+    }
+
+    @Test
+    void searchAllByFilter_SelectsIntoRecordsWithoutManagingEntities() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        var saved = taskRepository.save(new TaskEntity(null, "Release notes", "draft", 3L, 4L, Status.CREATED, now, now.plusDays(5), Priority.HIGH, null));
+        taskRepository.flush();
+        entityManager.clear();
+        RecordingStatementInspector.clear();
+
+        List<Task> found = taskRepository.searchAllByFilter(TaskSearchFilter.builder().creatorId(3L).build(), Pageable.ofSize(10));
+
+        Assertions.assertThat(found).containsExactly(TaskMapper.fromEntityToDomain(saved));
+        Assertions.assertThat(RecordingStatementInspector.statements()).hasSize(1);
+        Assertions.assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void searchAllByFilterAfterId_SelectsIntoRecordsWithoutManagingEntities() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        var saved = taskRepository.save(new TaskEntity(null, "Release notes", "draft", 3L, 4L, Status.CREATED, now, now.plusDays(5), Priority.HIGH, null));
+        taskRepository.flush();
+        entityManager.clear();
+
+        List<Task> found = taskRepository.searchAllByFilterAfterId(TaskSearchFilter.builder().creatorId(3L).build(), 0L, Limit.of(10));
+
+        Assertions.assertThat(found).containsExactly(TaskMapper.fromEntityToDomain(saved));
+        Assertions.assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void searchAllByFilterAfterId_WithTextContinuesMatchesInIdOrder() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        var inDescription = taskRepository.save(new TaskEntity(null, "Prepare", "write the release notes", 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.save(new TaskEntity(null, "Release notes", null, 1L, 2L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        var inTitle = taskRepository.save(new TaskEntity(null, "Release notes", null, 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.save(new TaskEntity(null, "Release", "only one of the words", 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.flush();
+        var filter = TaskSearchFilter.builder().assignedUserId(1L).q("release notes").build();
+
+        List<Task> firstPage = taskRepository.searchAllByFilterAfterId(filter, 0L, Limit.of(1));
+        List<Task> secondPage = taskRepository.searchAllByFilterAfterId(filter, firstPage.get(0).id(), Limit.of(1));
+        List<Task> lastPage = taskRepository.searchAllByFilterAfterId(filter, inTitle.getId(), Limit.of(1));
+
+        Assertions.assertThat(firstPage).extracting(Task::id).containsExactly(inDescription.getId());
+        Assertions.assertThat(secondPage).extracting(Task::id).containsExactly(inTitle.getId());
+        Assertions.assertThat(lastPage).isEmpty();
+    }
+
+    @Test
+    void lockIdsByFilterAfterId_WithTextLocksOnlyMatches() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        var match = taskRepository.save(new TaskEntity(null, "Release notes", null, 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.save(new TaskEntity(null, "Prepare", "draft", 1L, 1L, Status.CREATED, now, now.plusDays(5), Priority.LOW, null));
+        taskRepository.flush();
+
+        List<Long> ids = taskRepository.lockIdsByFilterAfterId(TaskSearchFilter.builder().q("release").build(), 0L, Limit.of(10));
+
+        Assertions.assertThat(ids).containsExactly(match.getId());
+    }
+
+
+    private static String singleSelect() {
+        List<String> selects = RecordingStatementInspector.statements().stream()
+                .filter(sql -> sql.startsWith("select"))
+                .toList();
+        Assertions.assertThat(selects).hasSize(1);
+        return selects.get(0);
+    }
+
+    private static void assertPredicate(String sql, String predicate, boolean expected) {
+        if (expected) {
+            Assertions.assertThat(sql).contains(predicate);
+        } else {
+            Assertions.assertThat(sql).doesNotContain(predicate);
+        }
+    }
+}
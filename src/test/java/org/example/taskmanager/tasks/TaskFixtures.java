@@ -0,0 +1,47 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared setup and checks of the tests that run against the database.
+ */
+final class TaskFixtures {
+
+    private TaskFixtures() {
+    }
+
+    /**
+     * Creates count LOW priority tasks assigned to the user through the service, so the counters are maintained.
+     */
+    static List<Long> createTasks(TaskService taskService, long userId, int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(Task.builder()
+                    .title("task" + i)
+                    .creatorId(1L)
+                    .assignedUserId(userId)
+                    .deadLineDate(LocalDateTime.now().plusDays(5))
+                    .priority(Priority.LOW)
+                    .build());
+        }
+        return taskService.createNewTasks(tasks).stream()
+                .map(result -> result.task().id())
+                .toList();
+    }
+
+    /**
+     * Every maintained counter of the user must equal the real number of its tasks in that status.
+     */
+    static void assertCountersMatchTasks(TaskService taskService, TaskRepository taskRepository, long userId) {
+        var stats = taskService.getUserTaskStats(userId).countsByStatus();
+        for (Status status : Status.values()) {
+            Assertions.assertThat(stats.get(status))
+                    .as("counter of " + status)
+                    .isEqualTo((long) taskRepository.countByAssignedUserIdAndStatus(userId, status));
+        }
+    }
+}
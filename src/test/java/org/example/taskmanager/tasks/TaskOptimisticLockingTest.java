@@ -0,0 +1,68 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+@SpringBootTest
+class TaskOptimisticLockingTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+
+    @Test
+    void editTask_withIfMatchVersionAppliesOnlyOnce() {
+        Task created = taskService.createNewTask(newTask("first"));
+        Assertions.assertThat(created.version()).isZero();
+
+        Task edited = taskService.editTask(created.id(), newTask("second"), Set.of(0L));
+        Assertions.assertThat(edited.version()).isEqualTo(1L);
+
+        Assertions.assertThatThrownBy(() -> taskService.editTask(created.id(), newTask("third"), Set.of(0L)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        Assertions.assertThat(taskService.getTaskById(created.id()).title()).isEqualTo("second");
+    }
+
+
+    @Test
+    void concurrentWriteBasedOnOldVersionIsRejectedInsteadOfLost() {
+        Task created = taskService.createNewTask(newTask("first"));
+
+        Assertions.assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+                    var staleEntity = taskRepository.findById(created.id()).orElseThrow();
+                    // another request updates the task and commits while this transaction still holds version 0
+                    CompletableFuture.runAsync(() -> taskService.editTask(created.id(), newTask("concurrent"), null)).join();
+                    staleEntity.setTitle("lost update");
+                }))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        Task stored = taskService.getTaskById(created.id());
+        Assertions.assertThat(stored.title()).isEqualTo("concurrent");
+        Assertions.assertThat(stored.version()).isEqualTo(1L);
+    }
+
+
+    private static Task newTask(String title) {
+        return Task.builder()
+                .title(title)
+                .creatorId(1L)
+                .assignedUserId(3001L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+    }
+}
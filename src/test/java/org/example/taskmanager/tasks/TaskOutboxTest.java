@@ -0,0 +1,165 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+class TaskOutboxTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+
+    @BeforeEach
+    void clearOutbox() {
+        outboxRepository.deleteAllInBatch();
+    }
+
+
+    @Test
+    void changesAreWrittenToOutboxOnlyWhenCommitted() {
+        Task created = taskService.createNewTask(newTask("outbox"));
+        taskService.switchTaskToInProgress(created.id());
+        taskService.getTaskDone(created.id());
+        taskService.deleteTask(created.id());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.createNewTask(newTask("rolled back"));
+            status.setRollbackOnly();
+        });
+
+        List<TaskOutboxEntity> rows = outboxRepository.findAll();
+        Assertions.assertThat(rows)
+                .extracting(TaskOutboxEntity::getEventType)
+                .containsExactly(
+                        TaskChangedEvent.Type.CREATED,
+                        TaskChangedEvent.Type.STATUS_CHANGED,
+                        TaskChangedEvent.Type.STATUS_CHANGED,
+                        TaskChangedEvent.Type.DELETED);
+        Assertions.assertThat(rows).allMatch(row -> row.getTaskId().equals(created.id()));
+        Assertions.assertThat(rows.get(0).getPayload()).contains("\"title\":\"outbox\"");
+    }
+
+
+    @Test
+    void relay_publishesInIdOrderInBatchesAndDeletesPublishedRows() {
+        var sink = new RecordingSink();
+        var relay = new TaskOutboxRelay(outboxRepository, sink, transactionManager, 2);
+        List<Long> taskIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            taskIds.add(taskService.createNewTask(newTask("relay" + i)).id());
+        }
+
+        Assertions.assertThat(relay.relay()).isEqualTo(5);
+
+        Assertions.assertThat(sink.batchSizes).containsExactly(2, 2, 1);
+        Assertions.assertThat(sink.messages).extracting(TaskOutboxMessage::taskId).containsExactlyElementsOf(taskIds);
+        Assertions.assertThat(sink.messages).extracting(TaskOutboxMessage::id).isSorted();
+        Assertions.assertThat(outboxRepository.count()).isZero();
+    }
+
+
+    @Test
+    void relay_keepsBatchWhenSinkFailsAndPublishesItAgain() {
+        var sink = new RecordingSink();
+        sink.failures = 1;
+        var relay = new TaskOutboxRelay(outboxRepository, sink, transactionManager, 10);
+        Task created = taskService.createNewTask(newTask("retry"));
+
+        Assertions.assertThat(relay.relay()).isZero();
+        Assertions.assertThat(outboxRepository.count()).isEqualTo(1);
+
+        Assertions.assertThat(relay.relay()).isEqualTo(1);
+        Assertions.assertThat(sink.messages).extracting(TaskOutboxMessage::taskId).containsExactly(created.id());
+        Assertions.assertThat(outboxRepository.count()).isZero();
+    }
+
+
+    @Test
+    void relay_skipsRowsLockedByAnotherRelay() throws Exception {
+        var blockedSink = new RecordingSink();
+        blockedSink.entered = new CountDownLatch(1);
+        blockedSink.release = new CountDownLatch(1);
+        var blockedRelay = new TaskOutboxRelay(outboxRepository, blockedSink, transactionManager, 2);
+        var sink = new RecordingSink();
+        var relay = new TaskOutboxRelay(outboxRepository, sink, transactionManager, 2);
+        for (int i = 0; i < 4; i++) {
+            taskService.createNewTask(newTask("parallel" + i));
+        }
+
+        var blocked = CompletableFuture.supplyAsync(blockedRelay::relay);
+        Assertions.assertThat(blockedSink.entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // the first two rows are locked by the blocked relay, this one takes the other two without waiting
+        Assertions.assertThat(relay.relay()).isEqualTo(2);
+        blockedSink.release.countDown();
+        Assertions.assertThat(blocked.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+
+        Assertions.assertThat(blockedSink.messages).extracting(TaskOutboxMessage::id)
+                .allSatisfy(id -> Assertions.assertThat(id).isLessThan(sink.messages.get(0).id()));
+        Assertions.assertThat(outboxRepository.count()).isZero();
+    }
+
+
+    private static Task newTask(String title) {
+        return Task.builder()
+                .title(title)
+                .creatorId(1L)
+                .assignedUserId(4001L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+    }
+
+
+    private static class RecordingSink implements TaskEventSink {
+
+        private final List<TaskOutboxMessage> messages = new CopyOnWriteArrayList<>();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private volatile int failures;
+        private volatile CountDownLatch entered;
+        private volatile CountDownLatch release;
+
+        @Override
+        public void publish(List<TaskOutboxMessage> batch) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("Broker unavailable");
+            }
+            if (entered != null) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                // only the first batch blocks
+                entered = null;
+            }
+            batchSizes.add(batch.size());
+            messages.addAll(batch);
+        }
+    }
+}
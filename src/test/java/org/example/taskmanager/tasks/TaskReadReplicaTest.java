@@ -0,0 +1,131 @@
+package org.example.taskmanager.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.Cookie;
+import org.assertj.core.api.Assertions;
+import org.example.taskmanager.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read replica routing against two H2 databases. The replica is brought up to date by copying the primary
+ * with SCRIPT / RUNSCRIPT, until then it shows how stale reads from the replica look.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "tasks.datasource.replicas.urls=" + TaskReadReplicaTest.REPLICA_URL
+})
+@AutoConfigureMockMvc
+class TaskReadReplicaTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+
+    @BeforeEach
+    void replicate() throws SQLException {
+        jdbcTemplate.execute("SCRIPT TO 'target/replica.sql'");
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM 'target/replica.sql'");
+        }
+    }
+
+
+    @Test
+    void readOnlyMethods_shouldReadFromReplica() throws SQLException {
+        long userId = 10001L;
+        Task created = taskService.createNewTask(task(userId));
+
+        // written to the primary, not replicated yet
+        Assertions.assertThat(taskService.getAllTasksOfOneAssignedUser(userId)).isEmpty();
+        Assertions.assertThatThrownBy(() -> taskService.getTaskById(created.id()))
+                .isInstanceOf(EntityNotFoundException.class);
+
+        replicate();
+
+        Assertions.assertThat(taskService.getAllTasksOfOneAssignedUser(userId))
+                .extracting(Task::id)
+                .containsExactly(created.id());
+        Assertions.assertThat(taskService.getTaskById(created.id()).title()).isEqualTo("replica");
+    }
+
+    @Test
+    void readOnlyMethods_shouldReadFromPrimary_whenPinned() {
+        long userId = 10002L;
+        Task created = taskService.createNewTask(task(userId));
+
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            Assertions.assertThat(taskService.getAllTasksOfOneAssignedUser(userId))
+                    .extracting(Task::id)
+                    .containsExactly(created.id());
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+    @Test
+    void requestAfterWrite_shouldReadItsOwnWrites() throws Exception {
+        long userId = 10003L;
+        MvcResult created = mockMvc.perform(post("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(task(userId))))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists("tasks-read-primary-until"))
+                .andReturn();
+        Cookie readPrimary = created.getResponse().getCookie("tasks-read-primary-until");
+
+        mockMvc.perform(get("/tasks/user/{assignedUserId}", userId).cookie(readPrimary))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        // another client reads the replica
+        mockMvc.perform(get("/tasks/user/{assignedUserId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+
+    private static Task task(long userId) {
+        return Task.builder()
+                .title("replica")
+                .creatorId(1L)
+                .assignedUserId(userId)
+                .deadLineDate(LocalDateTime.now().plusDays(1))
+                .priority(Priority.LOW)
+                .build();
+    }
+}
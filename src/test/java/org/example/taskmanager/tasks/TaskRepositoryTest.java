@@ -3,12 +3,18 @@ package org.example.taskmanager.tasks;
 import jakarta.persistence.EntityNotFoundException;
 import net.bytebuddy.utility.dispatcher.JavaDispatcher;
 import org.assertj.core.api.Assertions;
+import org.example.taskmanager.config.DatabaseDialect;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.context.annotation.Import;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,6 +22,7 @@ import java.util.List;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(DatabaseDialect.class)
 class TaskRepositoryTest {
 
 
@@ -29,18 +36,38 @@ class TaskRepositoryTest {
 
 
     @Test
-    void findAllEntitiesByAssignedUserIdTest_ReturnsAllEntitiesForAssignedUserId() {
+    void findAllTasksByAssignedUserIdTest_ReturnsAllTasksForAssignedUserId() {
         TaskEntity task1 = new TaskEntity(null,"TestTask1", "some1",1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
         TaskEntity task2 = new TaskEntity(null,"TestTask2", "some2",2L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
         taskRepository.save(task1);
         taskRepository.save(task2);
 
-        List<TaskEntity> entities = taskRepository.findAllEntitiesByAssignedUserId(1L);
+        List<Task> tasks = taskRepository.findAllTasksByAssignedUserId(1L);
 
-        Assertions.assertThat(entities.size()).isEqualTo(2);
-        Assertions.assertThat(entities)
-                .extracting(TaskEntity::getAssignedUserId)
+        Assertions.assertThat(tasks.size()).isEqualTo(2);
+        Assertions.assertThat(tasks)
+                .extracting(Task::assignedUserId)
                 .containsOnly(1L);
+        Assertions.assertThat(tasks)
+                .extracting(Task::id, Task::title, Task::status, Task::version)
+                .containsExactlyInAnyOrder(
+                        Assertions.tuple(task1.getId(), "TestTask1", Status.CREATED, 0L),
+                        Assertions.tuple(task2.getId(), "TestTask2", Status.CREATED, 0L));
+    }
+
+    @Test
+    void findAllTasks_ReturnsSortedPageWithTotal() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            taskRepository.save(new TaskEntity(null,"TestTask" + i, null,1L,1L,Status.CREATED, now,now.plusDays(5 - i), Priority.LOW,null));
+        }
+
+        Page<Task> page = taskRepository.findAllTasks(PageRequest.of(0, 2, Sort.by("deadLineDate")));
+
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(5);
+        Assertions.assertThat(page.getContent())
+                .extracting(Task::title)
+                .containsExactly("TestTask4", "TestTask3");
     }
 
     @Test
@@ -62,6 +89,80 @@ class TaskRepositoryTest {
         Assertions.assertThat(countCreated).isEqualTo(1);
     }
 
+    @Test
+    void completeTask_updatesRowOnceAndReturnsItWithPreviousStatus() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        TaskEntity task = taskRepository.save(new TaskEntity(null,"TestTask1", "some1",1L,3L,
+                Status.IN_PROGRESS, now, now.plusDays(5), Priority.HIGH,null));
+        taskRepository.flush();
+        LocalDateTime doneAt = now.plusDays(1);
+
+        TaskStatusChange completed = taskRepository.completeTask(task.getId(), doneAt).orElseThrow();
+
+        Assertions.assertThat(completed.previousStatus()).isEqualTo(Status.IN_PROGRESS);
+        Assertions.assertThat(completed.task().getStatus()).isEqualTo(Status.DONE);
+        Assertions.assertThat(completed.task().getDoneDataTime()).isEqualTo(doneAt);
+        Assertions.assertThat(completed.task().getTitle()).isEqualTo("TestTask1");
+        Assertions.assertThat(completed.task().getAssignedUserId()).isEqualTo(3L);
+        Assertions.assertThat(completed.task().getPriority()).isEqualTo(Priority.HIGH);
+        Assertions.assertThat(completed.task().getVersion()).isEqualTo(task.getVersion() + 1);
+
+        Assertions.assertThat(taskRepository.completeTask(task.getId(), doneAt.plusDays(1))).isEmpty();
+        Assertions.assertThat(taskRepository.completeTask(-1L, doneAt)).isEmpty();
+    }
+
+    @Test
+    void startTask_updatesRowOnceAndKeepsDoneDate() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        TaskEntity task = taskRepository.save(new TaskEntity(null,"TestTask1", "some1",1L,3L,
+                Status.DONE, now, now.plusDays(5), Priority.HIGH, now.plusDays(1)));
+        taskRepository.flush();
+
+        TaskStatusChange started = taskRepository.startTask(task.getId()).orElseThrow();
+
+        Assertions.assertThat(started.previousStatus()).isEqualTo(Status.DONE);
+        Assertions.assertThat(started.task().getStatus()).isEqualTo(Status.IN_PROGRESS);
+        Assertions.assertThat(started.task().getDoneDataTime()).isEqualTo(now.plusDays(1));
+        Assertions.assertThat(started.task().getAssignedUserId()).isEqualTo(3L);
+        Assertions.assertThat(started.task().getVersion()).isEqualTo(task.getVersion() + 1);
+
+        Assertions.assertThat(taskRepository.startTask(task.getId())).isEmpty();
+        Assertions.assertThat(taskRepository.startTask(-1L)).isEmpty();
+    }
+
+    @Test
+    void claimOverdueByIds_claimsEveryPassedDeadlineOnce() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        TaskEntity overdue = taskRepository.save(new TaskEntity(null,"TestTask1", "some1",1L,3L,
+                Status.CREATED, now.minusDays(1), now.minusHours(1), Priority.LOW,null));
+        TaskEntity done = taskRepository.save(new TaskEntity(null,"TestTask2", "some2",1L,3L,
+                Status.DONE, now.minusDays(1), now.minusHours(1), Priority.LOW, now.minusHours(2)));
+        TaskEntity upcoming = taskRepository.save(new TaskEntity(null,"TestTask3", "some3",1L,3L,
+                Status.CREATED, now.minusDays(1), now.plusHours(1), Priority.LOW,null));
+        List<Long> ids = List.of(overdue.getId(), done.getId(), upcoming.getId());
+
+        Assertions.assertThat(taskRepository.claimOverdueByIds(ids, now))
+                .containsExactly(new TaskOverdueEvent(overdue.getId(), 3L, now.minusHours(1)));
+        // already claimed, e.g. by another instance
+        Assertions.assertThat(taskRepository.claimOverdueByIds(ids, now)).isEmpty();
+
+        // a moved deadline is reported again once it passed
+        overdue.setDeadLineDate(now.plusMinutes(30));
+        taskRepository.flush();
+        Assertions.assertThat(taskRepository.claimOverdueByIds(ids, now.plusHours(2)))
+                .extracting(TaskOverdueEvent::taskId)
+                .containsExactlyInAnyOrder(overdue.getId(), upcoming.getId());
+    }
+
+    @Test
+    void findTaskById_ReturnsTaskAsRecord() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+        TaskEntity task1 = taskRepository.save(new TaskEntity(null,"TestTask1", "some1",1L,1L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null));
+
+        Assertions.assertThat(taskRepository.findTaskById(task1.getId())).contains(TaskMapper.fromEntityToDomain(task1));
+        Assertions.assertThat(taskRepository.findTaskById(-1L)).isEmpty();
+    }
+
     @Test
     void setStatusTest_ReturnsEntityWithUpdatedStatus() {
         TaskEntity task1 = new TaskEntity(null,"TestTask1", "some1",1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
@@ -91,14 +192,51 @@ class TaskRepositoryTest {
 
         Pageable unpaged = Pageable.unpaged();
 
-        List<TaskEntity> foundEntities = taskRepository.searchAllByFilter(2L,2L,Status.UPDATED,Priority.MEDIUM, unpaged);
+        List<Task> foundEntities = taskRepository.searchAllByFilter(
+                TaskSearchFilter.builder().creatorId(2L).assignedUserId(2L).status(Status.UPDATED).priority(Priority.MEDIUM).build(), unpaged);
 
         Assertions.assertThat(foundEntities)
                 .hasSize(2)
-                .extracting(TaskEntity::getTitle)
+                .extracting(Task::title)
                 .containsExactlyInAnyOrder("TestTask2", "TestTask4");
 
         Assertions.assertThat(foundEntities)
-                .allMatch(e -> e.getStatus() == Status.UPDATED && e.getPriority() == Priority.MEDIUM);
+                .allMatch(e -> e.status() == Status.UPDATED && e.priority() == Priority.MEDIUM);
+    }
+
+
+    @Test
+    void findAllTasksAfterId_ReturnsNextTasksOrderedById() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+        TaskEntity task1 = new TaskEntity(null,"TestTask1", "some1",1L,1L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null);
+        TaskEntity task2 = new TaskEntity(null,"TestTask2", "some2",1L,1L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null);
+        TaskEntity task3 = new TaskEntity(null,"TestTask3", "some3",1L,1L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null);
+        taskRepository.saveAll(List.of(task1, task2, task3));
+
+        List<Task> foundTasks = taskRepository.findAllTasksAfterId(task1.getId(), Limit.of(1));
+
+        Assertions.assertThat(foundTasks)
+                .extracting(Task::title)
+                .containsExactly("TestTask2");
     }
+
+    @Test
+    void searchAllByFilterAfterId_ReturnsFilteredTasksAfterCursor() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+        TaskEntity task1 = new TaskEntity(null,"TestTask1", "some1",1L,1L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null);
+        TaskEntity task2 = new TaskEntity(null,"TestTask2", "some2",2L,2L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null);
+        TaskEntity task3 = new TaskEntity(null,"TestTask3", "some3",1L,1L,Status.CREATED, now,now.plusDays(5), Priority.LOW,null);
+        TaskEntity task4 = new TaskEntity(null,"TestTask4", "some4",1L,1L,Status.DONE, now,now.plusDays(5), Priority.LOW,null);
+        taskRepository.saveAll(List.of(task1, task2, task3, task4));
+
+        List<Task> foundTasks = taskRepository.searchAllByFilterAfterId(
+                TaskSearchFilter.builder().creatorId(1L).status(Status.CREATED).build(), task1.getId(), Limit.of(10));
+
+        Assertions.assertThat(foundTasks)
+                .extracting(Task::title)
+                .containsExactly("TestTask3");
+    }
+
 }
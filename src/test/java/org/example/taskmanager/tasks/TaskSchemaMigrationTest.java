@@ -0,0 +1,98 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the flyway scripts straight from the classpath, no database is needed to check
+ * that the schema owned by the migrations has the indexes the repository queries rely on.
+ */
+class TaskSchemaMigrationTest {
+
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__\\w+\\.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+INDEX\\s+(?:CONCURRENTLY\\s+)?(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)\\s+ON\\s+(\\w+)\\s*(?:USING\\s+\\w+\\s*)?\\((.+?)\\)\\s*(?:WHERE\\s+(.+))?",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private record IndexDefinition(String table, List<String> columns, String where) {}
+
+    private static List<String> migrationNames;
+    private static Map<String, IndexDefinition> indexes;
+
+
+    @BeforeAll
+    static void readMigrations() throws IOException {
+        migrationNames = new ArrayList<>();
+        indexes = new HashMap<>();
+        Resource[] scripts = new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql");
+        for (Resource script : scripts) {
+            migrationNames.add(script.getFilename());
+            String sql = script.getContentAsString(StandardCharsets.UTF_8).replaceAll("--[^\\n]*", "");
+            for (String statement : sql.split(";")) {
+                Matcher matcher = CREATE_INDEX.matcher(statement.trim());
+                if (matcher.matches()) {
+                    List<String> columns = List.of(matcher.group(3).replace("\"", "").split("\\s*,\\s*"));
+                    String where = matcher.group(4) != null ? matcher.group(4).trim() : null;
+                    indexes.put(matcher.group(1), new IndexDefinition(matcher.group(2), columns, where));
+                }
+            }
+        }
+    }
+
+
+    @Test
+    void migrations_HaveUniqueVersionedNames() {
+        Assertions.assertThat(migrationNames)
+                .isNotEmpty()
+                .allMatch(name -> MIGRATION_NAME.matcher(name).matches());
+
+        Assertions.assertThat(migrationNames.stream()
+                        .map(name -> MIGRATION_NAME.matcher(name).replaceAll("$1"))
+                        .toList())
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void assignedUserStatusIndex_CoversAssignedUserQueries() {
+        Assertions.assertThat(indexes.get("idx_tasks_assigned_user_status"))
+                .isEqualTo(new IndexDefinition("tasks", List.of("assigned user id", "status"), null));
+    }
+
+    @Test
+    void creatorPriorityIndex_CoversCreatorFilter() {
+        Assertions.assertThat(indexes.get("idx_tasks_creator_priority"))
+                .isEqualTo(new IndexDefinition("tasks", List.of("creator id", "priority"), null));
+    }
+
+    @Test
+    void activeStatusIndex_IsPartialOnNotDoneTasks() {
+        Assertions.assertThat(indexes.get("idx_tasks_active_status_priority"))
+                .isEqualTo(new IndexDefinition("tasks", List.of("status", "priority"), "status <> 'DONE'"));
+    }
+
+    @Test
+    void searchVectorIndex_CoversFullTextFilter() {
+        Assertions.assertThat(indexes.get("idx_tasks_search_vector"))
+                .isEqualTo(new IndexDefinition("tasks", List.of("search_vector"), null));
+    }
+
+    @Test
+    void activeDeadlineIndexes_ArePartialOnNotDoneTasksAndEndWithId() {
+        Assertions.assertThat(indexes.get("idx_tasks_active_deadline"))
+                .isEqualTo(new IndexDefinition("tasks", List.of("dead line date and time", "id"), "status <> 'DONE'"));
+        Assertions.assertThat(indexes.get("idx_tasks_assigned_user_active_deadline"))
+                .isEqualTo(new IndexDefinition("tasks", List.of("assigned user id", "dead line date and time", "id"), "status <> 'DONE'"));
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class TaskServiceCacheTest {
+
+    @MockitoBean
+    private TaskRepository taskRepository;
+
+    @MockitoBean
+    private UserTaskCounterRepository counterRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private TaskEntity entityInRepo;
+
+    @BeforeEach
+    void init() {
+        cacheManager.getCache(TaskService.TASK_CACHE).clear();
+        entityInRepo = new TaskEntity(1L,"test1", null,1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(entityInRepo));
+        when(taskRepository.findTaskById(1L)).thenReturn(Optional.of(TaskMapper.fromEntityToDomain(entityInRepo)));
+    }
+
+
+    @Test
+    void getTaskById_shouldHitRepositoryOnlyOnce() {
+        var nativeCache = ((CaffeineCache) cacheManager.getCache(TaskService.TASK_CACHE)).getNativeCache();
+        var statsBefore = nativeCache.stats();
+
+        taskService.getTaskById(1L);
+        Task cached = taskService.getTaskById(1L);
+
+        Assertions.assertThat(cached.title()).isEqualTo("test1");
+        verify(taskRepository, times(1)).findTaskById(1L);
+
+        var stats = nativeCache.stats().minus(statsBefore);
+        Assertions.assertThat(stats.hitCount()).isEqualTo(1);
+        Assertions.assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void editTask_shouldEvictCachedTask() {
+        taskService.getTaskById(1L);
+
+        taskService.editTask(1L, Task.builder()
+                .title("updTitle")
+                .creatorId(1L)
+                .assignedUserId(1L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build(), null);
+
+        assertReloadedAfterEviction();
+    }
+
+    @Test
+    void switchTaskToInProgress_shouldEvictCachedTaskUpdatedByBulkQuery() {
+        taskService.getTaskById(1L);
+        when(taskRepository.startTask(1L)).thenReturn(Optional.of(new TaskStatusChange(entityInRepo, Status.CREATED)));
+        when(counterRepository.acquireInProgressSlot(1L, TaskService.MAX_IN_PROGRESS_TASKS)).thenReturn(1);
+
+        taskService.switchTaskToInProgress(1L);
+
+        assertReloadedAfterEviction();
+    }
+
+    @Test
+    void getTaskDone_shouldEvictCachedTask() {
+        taskService.getTaskById(1L);
+        when(taskRepository.completeTask(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new TaskStatusChange(entityInRepo, Status.CREATED)));
+
+        taskService.getTaskDone(1L);
+
+        assertReloadedAfterEviction();
+    }
+
+    @Test
+    void deleteTask_shouldEvictCachedTask() {
+        taskService.getTaskById(1L);
+        when(taskRepository.deleteAllReturning(List.of(1L))).thenReturn(List.of(TaskMapper.fromEntityToDomain(entityInRepo)));
+
+        taskService.deleteTask(1L);
+
+        Assertions.assertThat(cacheManager.getCache(TaskService.TASK_CACHE).get(1L)).isNull();
+    }
+
+
+    private void assertReloadedAfterEviction() {
+        Assertions.assertThat(cacheManager.getCache(TaskService.TASK_CACHE).get(1L)).isNull();
+        clearInvocations(taskRepository);
+
+        taskService.getTaskById(1L);
+
+        verify(taskRepository).findTaskById(1L);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.taskmanager.tasks;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.example.taskmanager.tasks.TaskFixtures.createTasks;
+
+/**
+ * Starts tasks of one user from many threads at once, every call runs in its own committed transaction.
+ * The mixed test also runs bulk status changes and bulk deletes of the same tasks, which lock the same counter rows.
+ */
+@SpringBootTest
+class TaskServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserTaskCounterRepository counterRepository;
+
+
+    @Test
+    void switchTaskToInProgress_neverExceedsLimitUnderConcurrentStarts() throws Exception {
+        long userId = 1001L;
+        List<Long> ids = createTasks(taskService, userId, THREADS);
+
+        List<Boolean> outcomes = startConcurrently(ids);
+
+        Assertions.assertThat(outcomes.stream().filter(started -> started).count())
+                .isEqualTo(TaskService.MAX_IN_PROGRESS_TASKS);
+        Assertions.assertThat(taskRepository.countByAssignedUserIdAndStatus(userId, Status.IN_PROGRESS))
+                .isEqualTo(TaskService.MAX_IN_PROGRESS_TASKS);
+        Assertions.assertThat(inProgressCounter(userId))
+                .isEqualTo(TaskService.MAX_IN_PROGRESS_TASKS);
+        Assertions.assertThat(taskService.getUserTaskStats(userId).countsByStatus())
+                .containsEntry(Status.CREATED, (long) THREADS - TaskService.MAX_IN_PROGRESS_TASKS);
+    }
+
+    @Test
+    void switchTaskToInProgress_sameTaskFromManyThreadsTakesOneSlot() throws Exception {
+        long userId = 1002L;
+        Long id = createTasks(taskService, userId, 1).get(0);
+
+        startConcurrently(Collections.nCopies(THREADS, id));
+
+        Assertions.assertThat(taskRepository.countByAssignedUserIdAndStatus(userId, Status.IN_PROGRESS)).isEqualTo(1);
+        Assertions.assertThat(inProgressCounter(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void switchTaskToInProgress_mixedWithBulkStatusAndBulkDeleteNeverDeadlocks() throws Exception {
+        long userId = 1003L;
+        List<Long> ids = createTasks(taskService, userId, THREADS);
+        // starts of DONE tasks count down a row after IN_PROGRESS, starts of CREATED tasks one before it
+        taskService.changeStatuses(new TaskBulkStatusRequest(ids.subList(0, THREADS / 2), null, Status.DONE));
+
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                Long id = ids.get(i);
+                List<Long> window = ids.subList(i, Math.min(i + 4, THREADS));
+                int operation = i % 4;
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        switch (operation) {
+                            case 0 -> taskService.changeStatuses(new TaskBulkStatusRequest(window, null, Status.IN_PROGRESS));
+                            case 1 -> taskService.changeStatuses(new TaskBulkStatusRequest(window, null, Status.DONE));
+                            case 2 -> taskService.deleteTasks(new TaskBulkDeleteRequest(List.of(id), null));
+                            default -> taskService.switchTaskToInProgress(id);
+                        }
+                    } catch (IllegalStateException | EntityNotFoundException ex) {
+                        // rejected by the limit, by a concurrent change or because the task was deleted
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+        }
+        // a deadlock or a lock timeout would surface here as an ExecutionException
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        Assertions.assertThat(taskRepository.countByAssignedUserIdAndStatus(userId, Status.IN_PROGRESS))
+                .isLessThanOrEqualTo(TaskService.MAX_IN_PROGRESS_TASKS);
+        Assertions.assertThat(taskService.reconcileUserTaskCounters(userId)).isFalse();
+    }
+
+
+    // true = started, false = rejected by the limit or by a concurrent change of the same task
+    private List<Boolean> startConcurrently(List<Long> ids) throws Exception {
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(ids.size())) {
+            for (Long id : ids) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        taskService.switchTaskToInProgress(id);
+                        return true;
+                    } catch (IllegalStateException ex) {
+                        return false;
+                    }
+                }));
+            }
+            startGate.countDown();
+        }
+        List<Boolean> outcomes = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            outcomes.add(future.get());
+        }
+        return outcomes;
+    }
+
+    private long inProgressCounter(long userId) {
+        return counterRepository.findById(new UserTaskCounterId(userId, Status.IN_PROGRESS))
+                .map(UserTaskCounterEntity::getTaskCount)
+                .orElse(0L);
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.taskmanager.tasks;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,17 +11,27 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,6 +42,24 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private UserTaskCounterRepository counterRepository;
+
+    @Mock
+    private TaskArchiveRepository archiveRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
 
     @InjectMocks
     private TaskService taskService;  //  Эта аннотация создаёт реальный объект TaskService
@@ -48,9 +79,7 @@ class TaskServiceTest {
                 .priority(Priority.LOW)
                 .build();
 
-        TaskEntity mappedEntity = TaskMapper.fromDomainToEntity(task1);
-
-        when(taskRepository.findById(id)).thenReturn(Optional.of(mappedEntity));
+        when(taskRepository.findTaskById(id)).thenReturn(Optional.of(task1));
 
         Task returnedTask = taskService.getTaskById(id);
 
@@ -58,19 +87,30 @@ class TaskServiceTest {
                 .isNotNull()
                 .matches(t -> t.title().equals("test1"));
 
-        verify(taskRepository).findById(id);
+        verify(taskRepository).findTaskById(id);
     }
 
     @Test
     void taskService_getTaskById_shouldCheckAvailabilityAndThrowException() {
         Long id = 1L;
-        when(taskRepository.findById(id))
+        when(taskRepository.findTaskById(id))
                 .thenReturn(Optional.empty());
 
         Assertions.assertThatThrownBy(() -> taskService.getTaskById(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Not found task by ID: " +id);
-        verify(taskRepository).findById(id);
+        verify(taskRepository).findTaskById(id);
+        verify(archiveRepository).findTaskById(id);
+    }
+
+    @Test
+    void taskService_getTaskById_shouldFallBackToArchive() {
+        Long id = 1L;
+        var archivedTask = Task.builder().id(id).title("test1").status(Status.DONE).build();
+        when(taskRepository.findTaskById(id)).thenReturn(Optional.empty());
+        when(archiveRepository.findTaskById(id)).thenReturn(Optional.of(archivedTask));
+
+        Assertions.assertThat(taskService.getTaskById(id)).isEqualTo(archivedTask);
     }
 
 
@@ -99,12 +139,8 @@ class TaskServiceTest {
                 .priority(Priority.HIGH)
                 .build();
 
-        var mappedMockTask1 = TaskMapper.fromDomainToEntity(mockTask1);
-        var mappedMockTask2 = TaskMapper.fromDomainToEntity(mockTask2);
-
-
-        when(taskRepository.findAll(any(Pageable.class)))
-                .thenReturn(new PageImpl<>(List.of(mappedMockTask1,mappedMockTask2)));
+        when(taskRepository.findAllTasks(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(mockTask1,mockTask2)));
 
         Page<Task> found = taskService.getAllTasks(unpaged);
 
@@ -116,7 +152,7 @@ class TaskServiceTest {
                         .extracting(Task::title)
                                 .containsExactlyInAnyOrder("test1", "test2");
 
-        verify(taskRepository).findAll(any(Pageable.class));
+        verify(taskRepository).findAllTasks(any(Pageable.class));
 
     }
 
@@ -144,6 +180,7 @@ class TaskServiceTest {
                 .matches(e -> e.createDateTime() != null);
 
         verify(taskRepository).save(any(TaskEntity.class));
+        verify(eventPublisher).publishEvent(TaskChangedEvent.created(savedEntity));
     }
 
 
@@ -152,28 +189,40 @@ class TaskServiceTest {
     @Test
     void taskService_deleteTask_shouldCallRepository() {
         Long id = 1L;
-        var entityTask1 = new TaskEntity();
+        var deletedTask = Task.builder().id(id).assignedUserId(3L).status(Status.CREATED).build();
 
-        when(taskRepository.findById(id)).thenReturn(Optional.of(entityTask1));
+        when(taskRepository.deleteAllReturning(List.of(id))).thenReturn(List.of(deletedTask));
 
         taskService.deleteTask(id);
 
-        verify(taskRepository).findById(any(Long.class));
-        verify(taskRepository).delete(entityTask1);
+        verify(taskRepository).deleteAllReturning(List.of(id));
+        verify(taskRepository, never()).findById(any(Long.class));
     }
 
     @Test
     void taskService_deleteTask_shouldCallRepositoryAndThrowEntityNotFoundException() {
 
         Long id = 1L;
-        when(taskRepository.findById(id)).thenReturn(Optional.empty());
+        when(taskRepository.deleteAllReturning(List.of(id))).thenReturn(List.of());
 
         Assertions.assertThatThrownBy(() -> taskService.deleteTask(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("There is no task found by ID: "+id);
 
-        verify(taskRepository).findById(id);
-        verify(taskRepository,never()).delete(any());
+        verifyNoInteractions(counterRepository, eventPublisher);
+    }
+
+    @Test
+    void taskService_deleteTask_shouldThrowTaskArchivedExceptionForArchivedTask() {
+        Long id = 1L;
+        when(taskRepository.deleteAllReturning(List.of(id))).thenReturn(List.of());
+        when(archiveRepository.existsById(id)).thenReturn(true);
+
+        Assertions.assertThatThrownBy(() -> taskService.deleteTask(id))
+                .isInstanceOf(TaskArchivedException.class)
+                .hasMessageContaining("is archived");
+
+        verifyNoInteractions(counterRepository, eventPublisher);
     }
 
 
@@ -196,15 +245,17 @@ class TaskServiceTest {
                 .title("test1")
                 .creatorId(1L)
                 .assignedUserId(1L)
+                .status(Status.CREATED)
                 .deadLineDate(LocalDateTime.now().plusDays(5))
                 .priority(Priority.LOW)
                 .build();
 
         var taskEntity1 = TaskMapper.fromDomainToEntity(taskInRepo);
+        var createDateTime = LocalDateTime.now().minusDays(1);
+        taskEntity1.setCreateDateTime(createDateTime);
         when(taskRepository.findById(id)).thenReturn(Optional.of(taskEntity1));
-        when(taskRepository.save(any(TaskEntity.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        var updatedTask = taskService.editTask(id,dataToUpdate);
+        var updatedTask = taskService.editTask(id, dataToUpdate, null);
 
         Assertions.assertThat(updatedTask)
                 .isNotNull()
@@ -212,10 +263,87 @@ class TaskServiceTest {
                 .matches(t -> t.status() == Status.UPDATED);
 
         verify(taskRepository).findById(id);
+        // the managed entity is changed in place, no merge through save
+        verify(taskRepository, never()).save(any());
+        Assertions.assertThat(taskEntity1.getStatus()).isEqualTo(Status.UPDATED);
+        Assertions.assertThat(taskEntity1.getCreateDateTime()).isEqualTo(createDateTime);
+    }
+
+
+    @Test
+    void taskService_editTask_shouldThrowWhenIfMatchVersionIsStale() {
+        Long id = 1L;
+        var entityInRepo = new TaskEntity(id,"test1", "desc",2L,3L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
+        entityInRepo.setVersion(3L);
+        var dataToUpdate = Task.builder()
+                .title("updTitle")
+                .creatorId(2L)
+                .assignedUserId(3L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+        when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
+
+        Assertions.assertThatThrownBy(() -> taskService.editTask(id, dataToUpdate, Set.of(2L)))
+                .isInstanceOf(OptimisticLockingFailureException.class)
+                .hasMessageContaining("has version 3, expected one of [2]");
+
+        Assertions.assertThat(entityInRepo.getTitle()).isEqualTo("test1");
+        verifyNoInteractions(counterRepository);
+    }
+
+
+    @Test
+    void taskService_patchTask_shouldApplyOnlyPresentFields() {
+        Long id = 1L;
+        var entityInRepo = new TaskEntity(id,"test1", "desc",2L,3L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
+        when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
+        when(counterRepository.add(anyLong(), any(), anyLong())).thenReturn(1);
+
+        var patched = taskService.patchTask(id, TaskPatch.builder()
+                .title("updTitle")
+                .priority(Priority.HIGH)
+                .build(), null);
+
+        Assertions.assertThat(patched.title()).isEqualTo("updTitle");
+        Assertions.assertThat(patched.priority()).isEqualTo(Priority.HIGH);
+        Assertions.assertThat(patched.description()).isEqualTo("desc");
+        Assertions.assertThat(patched.assignedUserId()).isEqualTo(3L);
+        Assertions.assertThat(patched.status()).isEqualTo(Status.UPDATED);
+
+        verify(taskRepository, never()).save(any());
+        verify(counterRepository).add(3L, Status.CREATED, -1);
+        verify(counterRepository).add(3L, Status.UPDATED, 1);
+    }
+
+
+    @Test
+    void taskService_patchTask_withoutChangesShouldKeepStatus() {
+        Long id = 1L;
+        var entityInRepo = new TaskEntity(id,"test1", "desc",2L,3L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
+        when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
+
+        var patched = taskService.patchTask(id, TaskPatch.builder()
+                .title("test1")
+                .build(), null);
+
+        Assertions.assertThat(patched.status()).isEqualTo(Status.IN_PROGRESS);
+        verifyNoInteractions(counterRepository);
+        verifyNoInteractions(eventPublisher);
+    }
+
+
+    @Test
+    void taskService_patchTask_shouldThrow_WhenStatusIsDone() {
+        Long id = 1L;
+        var entityInRepo = new TaskEntity(id,"test1", "desc",2L,3L,Status.DONE, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,LocalDateTime.now());
+        when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
+
+        Assertions.assertThatThrownBy(() -> taskService.patchTask(id, TaskPatch.builder().title("updTitle").build(), null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Cannot modify tasks with Status.DONE");
 
-        var captor = ArgumentCaptor.forClass(TaskEntity.class);
-        verify(taskRepository).save(captor.capture());
-        Assertions.assertThat(captor.getValue().getStatus()).isEqualTo(Status.UPDATED);
+        Assertions.assertThat(entityInRepo.getTitle()).isEqualTo("test1");
     }
 
     @Test
@@ -226,7 +354,7 @@ class TaskServiceTest {
 
         when(taskRepository.findById(id)).thenReturn(Optional.empty());
 
-        Assertions.assertThatThrownBy(() -> taskService.editTask(id,dataToUpdate))
+        Assertions.assertThatThrownBy(() -> taskService.editTask(id, dataToUpdate, null))
                         .isInstanceOf(EntityNotFoundException.class)
                         .hasMessageContaining("There is no task found");
 
@@ -253,7 +381,7 @@ class TaskServiceTest {
         var taskEntityInRepo = TaskMapper.fromDomainToEntity(taskInRepo);
         when(taskRepository.findById(id)).thenReturn(Optional.of(taskEntityInRepo));
 
-        Assertions.assertThatThrownBy(() -> taskService.editTask(id,dataToUpdate))
+        Assertions.assertThatThrownBy(() -> taskService.editTask(id, dataToUpdate, null))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Cannot modify tasks with Status.DONE");
 
@@ -281,7 +409,7 @@ class TaskServiceTest {
         var taskEntityInRepo = TaskMapper.fromDomainToEntity(taskInRepo);
         when(taskRepository.findById(id)).thenReturn(Optional.of(taskEntityInRepo));
 
-        Assertions.assertThatThrownBy(() -> taskService.editTask(id,dataToUpdate))
+        Assertions.assertThatThrownBy(() -> taskService.editTask(id, dataToUpdate, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Cannot modify task-Status to Status.CREATED");
 
@@ -308,7 +436,7 @@ class TaskServiceTest {
         var taskEntityInRepo = TaskMapper.fromDomainToEntity(taskInRepo);
         when(taskRepository.findById(id)).thenReturn(Optional.of(taskEntityInRepo));
 
-        Assertions.assertThatThrownBy(() -> taskService.editTask(id,dataToUpdate))
+        Assertions.assertThatThrownBy(() -> taskService.editTask(id, dataToUpdate, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Dead-line date should be before");
 
@@ -320,26 +448,54 @@ class TaskServiceTest {
     @Test
     void taskService_switchTaskToInProgress_changeStatusSuccess(){
         Long id = 1L;
-        var taskInRepo = Task.builder()
-                .title("updTitle")
-                .description("updDesc")
-                .creatorId(2L)
-                .assignedUserId(2L)
-                .status(Status.CREATED)
-                .deadLineDate(LocalDateTime.now().minusDays(5))
-                .priority(Priority.MEDIUM)
-                .build();
-        var entityInRepo = TaskMapper.fromDomainToEntity(taskInRepo);
+        var startedEntity = new TaskEntity(id,"test1", null,2L,2L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
 
-        when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
-        when(taskRepository.countByAssignedUserIdAndStatus(entityInRepo.getAssignedUserId(),Status.IN_PROGRESS)).thenReturn(1);
-        doNothing().when(taskRepository).setStatus(id, Status.IN_PROGRESS);
+        when(taskRepository.startTask(id)).thenReturn(Optional.of(new TaskStatusChange(startedEntity, Status.CREATED)));
+        when(counterRepository.add(2L, Status.CREATED, -1)).thenReturn(1);
+        when(counterRepository.acquireInProgressSlot(2L, TaskService.MAX_IN_PROGRESS_TASKS)).thenReturn(1);
 
         taskService.switchTaskToInProgress(id);
 
-        verify(taskRepository).findById(id);
-        verify(taskRepository).countByAssignedUserIdAndStatus(entityInRepo.getAssignedUserId(), Status.IN_PROGRESS);
-        verify(taskRepository).setStatus(id, Status.IN_PROGRESS);
+        // three statements: the task UPDATE and the two counter rows, the task is not read first
+        var inOrder = inOrder(taskRepository, counterRepository);
+        inOrder.verify(taskRepository).startTask(id);
+        inOrder.verify(counterRepository).add(2L, Status.CREATED, -1);
+        inOrder.verify(counterRepository).acquireInProgressSlot(2L, TaskService.MAX_IN_PROGRESS_TASKS);
+        verify(taskRepository, never()).findById(anyLong());
+        verify(counterRepository, never()).createIfAbsent(anyLong(), any());
+        verify(taskRepository, never()).countByAssignedUserIdAndStatus(anyLong(), any());
+    }
+
+
+    @Test
+    void taskService_switchTaskToInProgress_takesSlotBeforeCountingDownLaterStatus(){
+        Long id = 1L;
+        var startedEntity = new TaskEntity(id,"test1", null,2L,2L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,LocalDateTime.now());
+
+        when(taskRepository.startTask(id)).thenReturn(Optional.of(new TaskStatusChange(startedEntity, Status.DONE)));
+        when(counterRepository.acquireInProgressSlot(2L, TaskService.MAX_IN_PROGRESS_TASKS)).thenReturn(1);
+        when(counterRepository.add(2L, Status.DONE, -1)).thenReturn(1);
+
+        taskService.switchTaskToInProgress(id);
+
+        var inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).acquireInProgressSlot(2L, TaskService.MAX_IN_PROGRESS_TASKS);
+        inOrder.verify(counterRepository).add(2L, Status.DONE, -1);
+    }
+
+
+    @Test
+    void taskService_switchTaskToInProgress_createsCounterRowOnFirstStart(){
+        Long id = 1L;
+        var startedEntity = new TaskEntity(id,"test1", null,2L,2L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
+
+        when(taskRepository.startTask(id)).thenReturn(Optional.of(new TaskStatusChange(startedEntity, Status.CREATED)));
+        when(counterRepository.acquireInProgressSlot(2L, TaskService.MAX_IN_PROGRESS_TASKS)).thenReturn(0, 1);
+
+        taskService.switchTaskToInProgress(id);
+
+        verify(counterRepository).createIfAbsent(2L, Status.IN_PROGRESS);
+        verify(counterRepository, times(2)).acquireInProgressSlot(2L, TaskService.MAX_IN_PROGRESS_TASKS);
     }
 
 
@@ -347,44 +503,181 @@ class TaskServiceTest {
     void taskService_switchTaskToInProgress_throwEntityNotFoundException() {
         Long id = 1L;
 
-        when(taskRepository.findById(id)).thenReturn(Optional.empty());
+        when(taskRepository.startTask(id)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(id)).thenReturn(false);
 
         Assertions.assertThatThrownBy(() -> taskService.switchTaskToInProgress(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessageContaining("There is no task found");
 
-        verify(taskRepository).findById(id);
-        verify(taskRepository,never()).countByAssignedUserIdAndStatus(1L,Status.IN_PROGRESS);
+        verify(counterRepository, never()).acquireInProgressSlot(anyLong(), anyLong());
+        verify(counterRepository, never()).add(anyLong(), any(), anyLong());
         verify(taskRepository,never()).save(any());
     }
 
     @Test
     void taskService_switchTaskToInProgress_throwIllegalStateException(){
         Long id = 1L;
+        var startedEntity = new TaskEntity(id,"updTitle", "updDesc",2L,2L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().minusDays(5), Priority.MEDIUM,null);
 
-        var taskInRepo = Task.builder()
+        when(taskRepository.startTask(id)).thenReturn(Optional.of(new TaskStatusChange(startedEntity, Status.UPDATED)));
+        when(counterRepository.acquireInProgressSlot(2L, TaskService.MAX_IN_PROGRESS_TASKS)).thenReturn(0);
+        when(counterRepository.findById(new UserTaskCounterId(2L, Status.IN_PROGRESS)))
+                .thenReturn(Optional.of(new UserTaskCounterEntity(2L, Status.IN_PROGRESS, 5)));
+
+        // the exception rolls back the UPDATE of the task
+        Assertions.assertThatThrownBy(()-> taskService.switchTaskToInProgress(id))
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessageContaining("User ID 2 already got 5 active tasks");
+
+        verify(counterRepository, never()).add(anyLong(), any(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void taskService_switchTaskToInProgress_doesNothingWhenAlreadyInProgress(){
+        Long id = 1L;
+
+        when(taskRepository.startTask(id)).thenReturn(Optional.empty());
+        when(taskRepository.existsById(id)).thenReturn(true);
+
+        taskService.switchTaskToInProgress(id);
+
+        verify(counterRepository, never()).acquireInProgressSlot(anyLong(), anyLong());
+        verify(counterRepository, never()).createIfAbsent(anyLong(), any());
+        verify(counterRepository, never()).add(anyLong(), any(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void taskService_getTaskDone_shouldMoveCounterFromPreviousStatusToDone() {
+        Long id = 1L;
+        var completedEntity = new TaskEntity(id,"test1", null,2L,3L,Status.DONE, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,LocalDateTime.now());
+
+        when(taskRepository.completeTask(eq(id), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new TaskStatusChange(completedEntity, Status.IN_PROGRESS)));
+        when(counterRepository.add(anyLong(), any(), anyLong())).thenReturn(1);
+
+        taskService.getTaskDone(id);
+
+        var inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).add(3L, Status.IN_PROGRESS, -1);
+        inOrder.verify(counterRepository).add(3L, Status.DONE, 1);
+    }
+
+    @Test
+    void taskService_deleteTask_shouldDecrementCounterOfItsStatus() {
+        Long id = 1L;
+        var entityInRepo = new TaskEntity(id,"test1", null,2L,3L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
+        var deletedTask = TaskMapper.fromEntityToDomain(entityInRepo);
+
+        when(taskRepository.deleteAllReturning(List.of(id))).thenReturn(List.of(deletedTask));
+
+        taskService.deleteTask(id);
+
+        verify(counterRepository).add(3L, Status.CREATED, -1);
+        verify(counterRepository, never()).createIfAbsent(anyLong(), any());
+        verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(deletedTask));
+    }
+
+    @Test
+    void taskService_createNewTask_shouldCreateCounterRowWhenMissing() {
+        var taskToCreate = Task.builder()
+                .title("test1")
+                .creatorId(1L)
+                .assignedUserId(4L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+
+        when(taskRepository.save(any(TaskEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(counterRepository.add(4L, Status.CREATED, 1)).thenReturn(0, 1);
+
+        taskService.createNewTask(taskToCreate);
+
+        verify(counterRepository).createIfAbsent(4L, Status.CREATED);
+        verify(counterRepository, times(2)).add(4L, Status.CREATED, 1);
+    }
+
+    @Test
+    void taskService_editTask_shouldMoveCounterToNewAssignedUser() {
+        Long id = 1L;
+        var entityInRepo = new TaskEntity(id,"test1", null,2L,5L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null);
+        var dataToUpdate = Task.builder()
                 .title("updTitle")
-                .description("updDesc")
                 .creatorId(2L)
-                .assignedUserId(2L)
-                .status(Status.CREATED)
-                .deadLineDate(LocalDateTime.now().minusDays(5))
-                .priority(Priority.MEDIUM)
+                .assignedUserId(3L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
                 .build();
-        var entityInRepo = TaskMapper.fromDomainToEntity(taskInRepo);
 
         when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
-        when(taskRepository.countByAssignedUserIdAndStatus(entityInRepo.getAssignedUserId(),Status.IN_PROGRESS)).thenReturn(5);
+        when(counterRepository.add(anyLong(), any(), anyLong())).thenReturn(1);
 
-        Assertions.assertThatThrownBy(()-> taskService.switchTaskToInProgress(id))
-                        .isInstanceOf(IllegalStateException.class)
-                        .hasMessageContaining("User ID");
+        taskService.editTask(id, dataToUpdate, null);
 
-        verify(taskRepository).findById(id);
-        verify(taskRepository).countByAssignedUserIdAndStatus(entityInRepo.getAssignedUserId(), Status.IN_PROGRESS);
-        verify(taskRepository, never()).setStatus(id, Status.IN_PROGRESS);
+        // rows are updated in (user, status) order, the new user's row comes first here
+        var inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).add(3L, Status.UPDATED, 1);
+        inOrder.verify(counterRepository).add(5L, Status.IN_PROGRESS, -1);
+
+        var captor = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        Assertions.assertThat(captor.getValue().type()).isEqualTo(TaskChangedEvent.Type.UPDATED);
+        Assertions.assertThat(captor.getValue().assignedUserId()).isEqualTo(3L);
+        Assertions.assertThat(captor.getValue().previousAssignedUserId()).isEqualTo(5L);
+    }
+
+    @Test
+    void taskService_getUserTaskStats_shouldFillMissingStatusesWithZero() {
+        when(counterRepository.findAllByAssignedUserId(2L)).thenReturn(List.of(
+                new UserTaskCounterEntity(2L, Status.CREATED, 3),
+                new UserTaskCounterEntity(2L, Status.IN_PROGRESS, 2)));
+
+        UserTaskStats stats = taskService.getUserTaskStats(2L);
+
+        Assertions.assertThat(stats.countsByStatus())
+                .containsEntry(Status.CREATED, 3L)
+                .containsEntry(Status.IN_PROGRESS, 2L)
+                .containsEntry(Status.DONE, 0L)
+                .containsEntry(Status.UPDATED, 0L);
+        Assertions.assertThat(stats.total()).isEqualTo(5);
+    }
+
+    @Test
+    void taskService_reconcileUserTaskCounters_shouldOverwriteOnlyDriftedCounters() {
+        when(counterRepository.lockByAssignedUserIdAndStatus(2L, Status.CREATED))
+                .thenReturn(Optional.of(new UserTaskCounterEntity(2L, Status.CREATED, 3)));
+        when(counterRepository.lockByAssignedUserIdAndStatus(2L, Status.IN_PROGRESS))
+                .thenReturn(Optional.of(new UserTaskCounterEntity(2L, Status.IN_PROGRESS, 0)));
+        when(counterRepository.lockByAssignedUserIdAndStatus(2L, Status.DONE))
+                .thenReturn(Optional.of(new UserTaskCounterEntity(2L, Status.DONE, 7)));
+        when(counterRepository.lockByAssignedUserIdAndStatus(2L, Status.UPDATED))
+                .thenReturn(Optional.of(new UserTaskCounterEntity(2L, Status.UPDATED, 0)));
+        when(taskRepository.countByStatusOfAssignedUser(2L)).thenReturn(List.of(
+                new UserTaskCount(2L, Status.CREATED, 3),
+                new UserTaskCount(2L, Status.IN_PROGRESS, 1)));
+
+        boolean repaired = taskService.reconcileUserTaskCounters(2L);
+
+        Assertions.assertThat(repaired).isTrue();
+        verify(counterRepository).set(2L, Status.IN_PROGRESS, 1);
+        verify(counterRepository).set(2L, Status.DONE, 0);
+        verify(counterRepository, never()).set(2L, Status.CREATED, 3);
+        verify(counterRepository, never()).set(2L, Status.UPDATED, 0);
+    }
+
+    @Test
+    void taskService_reconcileUserTaskCounters_locksCounterRowsInStatusOrder() {
+        taskService.reconcileUserTaskCounters(2L);
+
+        var inOrder = inOrder(counterRepository);
+        for (Status status : Status.values()) {
+            inOrder.verify(counterRepository).lockByAssignedUserIdAndStatus(2L, status);
+        }
     }
 
+
     @Test
     void taskService_getAllTasksOfOneAssignedUser_shouldReturnListOfTasks() {
         Long assignedUserId = 1L;
@@ -396,10 +689,7 @@ class TaskServiceTest {
                 .id(2L)
                 .assignedUserId(1L)
                 .build();
-        var entityInRepo1 = TaskMapper.fromDomainToEntity(taskInRepo1);
-        var entityInRepo2 = TaskMapper.fromDomainToEntity(taskInRepo2);
-
-        when(taskRepository.findAllEntitiesByAssignedUserId(1L)).thenReturn(List.of(entityInRepo1, entityInRepo2));
+        when(taskRepository.findAllTasksByAssignedUserId(1L)).thenReturn(List.of(taskInRepo1, taskInRepo2));
 
         List<Task> entities = taskService.getAllTasksOfOneAssignedUser(assignedUserId);
 
@@ -407,39 +697,43 @@ class TaskServiceTest {
                 .isNotNull()
                 .allMatch(t -> t.assignedUserId().equals(1L))
                 .hasSize(2);
-        verify(taskRepository).findAllEntitiesByAssignedUserId(assignedUserId);
+        verify(taskRepository).findAllTasksByAssignedUserId(assignedUserId);
     }
 
 
     @Test
     void taskService_getTaskDone_shouldReturnUpdatedTaskStatusDONE() {
         Long id = 1L;
-        var taskInRepo = Task.builder()
-                .id(1L)
-                .title("updTitle")
-                .description("updDesc")
-                .creatorId(2L)
-                .assignedUserId(2L)
-                .status(Status.IN_PROGRESS)
-                .deadLineDate(LocalDateTime.now().minusDays(5))
-                .priority(Priority.MEDIUM)
-                .build();
-        var entityInRepo = TaskMapper.fromDomainToEntity(taskInRepo);
+        var completedEntity = new TaskEntity(id,"updTitle", "updDesc",2L,2L,Status.DONE, LocalDateTime.now(),LocalDateTime.now().minusDays(5), Priority.MEDIUM,LocalDateTime.now());
 
-        when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
-        when(taskRepository.save(any(TaskEntity.class)))
-                .thenAnswer(inv -> inv.getArgument(0));
+        when(taskRepository.completeTask(eq(id), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new TaskStatusChange(completedEntity, Status.IN_PROGRESS)));
 
         var result = taskService.getTaskDone(id);
 
-        var captor = ArgumentCaptor.forClass(TaskEntity.class);
-        verify(taskRepository).save(captor.capture());
-        var savedEntity = captor.getValue();
+        Assertions.assertThat(result.status()).isEqualTo(Status.DONE);
+        Assertions.assertThat(result.doneDataTime()).isNotNull();
 
-        Assertions.assertThat(savedEntity.getDoneDataTime()).isNotNull();
-        Assertions.assertThat(savedEntity.getStatus()).isEqualTo(Status.DONE);
+        verify(taskRepository).completeTask(eq(id), any(LocalDateTime.class));
+        verify(taskRepository, never()).findById(id);
+        verify(taskRepository, never()).save(any());
+    }
 
-        verify(taskRepository).findById(id);
+
+    @Test
+    void taskService_getTaskDone_shouldReturnTaskUnchangedWhenAlreadyDone() {
+        Long id = 1L;
+        var doneAt = LocalDateTime.now().minusDays(1);
+        var entityInRepo = new TaskEntity(id,"test1", null,2L,2L,Status.DONE, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,doneAt);
+
+        when(taskRepository.completeTask(eq(id), any(LocalDateTime.class))).thenReturn(Optional.empty());
+        when(taskRepository.findById(id)).thenReturn(Optional.of(entityInRepo));
+
+        var result = taskService.getTaskDone(id);
+
+        Assertions.assertThat(result.status()).isEqualTo(Status.DONE);
+        Assertions.assertThat(result.doneDataTime()).isEqualTo(doneAt);
+        verifyNoInteractions(counterRepository);
     }
 
 
@@ -447,6 +741,7 @@ class TaskServiceTest {
     void taskService_getTaskDone_shouldThrowEntityNotFoundException() {
         Long id = 1L;
 
+        when(taskRepository.completeTask(eq(id), any(LocalDateTime.class))).thenReturn(Optional.empty());
         when(taskRepository.findById(id)).thenReturn(Optional.empty());
 
         Assertions.assertThatThrownBy(() -> taskService.getTaskDone(id))
@@ -460,8 +755,7 @@ class TaskServiceTest {
 
     @Test
     void taskService_searchAllByFilter_ShouldReturnListOfTasks() {
-        TaskSearchFilter filter = new TaskSearchFilter(
-                2L,2L, Status.IN_PROGRESS, Priority.LOW, 10, 0);
+        TaskSearchFilter filter = TaskSearchFilter.builder().creatorId(2L).assignedUserId(2L).status(Status.IN_PROGRESS).priority(Priority.LOW).pageSize(10).pageNum(0).build();
 
         var taskInRepo1 = Task.builder()
                 .id(1L)
@@ -483,12 +777,8 @@ class TaskServiceTest {
                 .deadLineDate(LocalDateTime.now().minusDays(5))
                 .priority(Priority.LOW)
                 .build();
-        var entityInRepo1 = TaskMapper.fromDomainToEntity(taskInRepo1);
-        var entityInRepo2 = TaskMapper.fromDomainToEntity(taskInRepo2);
-
-        when(taskRepository.searchAllByFilter(
-                anyLong(),anyLong(), any(Status.class), any(Priority.class), any(Pageable.class)))
-                .thenReturn(List.of(entityInRepo1, entityInRepo2));
+        when(taskRepository.searchAllByFilter(eq(filter), any(Pageable.class)))
+                .thenReturn(List.of(taskInRepo1, taskInRepo2));
 
         List<Task> result = taskService.searchAllByFilter(filter);
 
@@ -500,36 +790,402 @@ class TaskServiceTest {
         Assertions.assertThat(result.get(0).id()).isEqualTo(taskInRepo1.id());
         Assertions.assertThat(result.get(1).id()).isEqualTo(taskInRepo2.id());
 
-        verify(taskRepository).searchAllByFilter(
-                eq(filter.creatorId()),
-                eq(filter.assignedUserId()),
-                eq(filter.status()),
-                eq(filter.priority()),
-                any(Pageable.class)
-        );
+        verify(taskRepository).searchAllByFilter(eq(filter), any(Pageable.class));
     }
 
     @Test
     void taskService_searchAllByFilter_ShouldThrowEntityNotFoundException() {
 
-        TaskSearchFilter filter = new TaskSearchFilter(
-                2L,2L, Status.IN_PROGRESS, Priority.LOW, 10, 0);
+        TaskSearchFilter filter = TaskSearchFilter.builder().creatorId(2L).assignedUserId(2L).status(Status.IN_PROGRESS).priority(Priority.LOW).pageSize(10).pageNum(0).build();
 
-        when(taskRepository.searchAllByFilter(
-                anyLong(),anyLong(), any(Status.class), any(Priority.class), any(Pageable.class)))
+        when(taskRepository.searchAllByFilter(eq(filter), any(Pageable.class)))
                 .thenReturn(List.of());
 
         Assertions.assertThatThrownBy(() -> taskService.searchAllByFilter(filter))
                         .isInstanceOf(EntityNotFoundException.class)
                                 .hasMessageContaining("Not found task");
 
-        verify(taskRepository).searchAllByFilter(
-                eq(filter.creatorId()),
-                eq(filter.assignedUserId()),
-                eq(filter.status()),
-                eq(filter.priority()),
-                any(Pageable.class)
-        );
+        verify(taskRepository).searchAllByFilter(eq(filter), any(Pageable.class));
+    }
+
+
+    @Test
+    void taskService_getAllTasksAfter_shouldReturnPageWithNextCursor() {
+        var task1 = TaskMapper.fromEntityToDomain(new TaskEntity(5L,"test1", null,1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+        var task2 = TaskMapper.fromEntityToDomain(new TaskEntity(6L,"test2", null,1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+        var task3 = TaskMapper.fromEntityToDomain(new TaskEntity(7L,"test3", null,1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+
+        when(taskRepository.findAllTasksAfterId(4L, Limit.of(3)))
+                .thenReturn(List.of(task1, task2, task3));
+
+        TaskCursorPage page = taskService.getAllTasksAfter(TaskCursor.encode(4L), 2);
+
+        Assertions.assertThat(page.content())
+                .extracting(Task::id)
+                .containsExactly(5L, 6L);
+        Assertions.assertThat(TaskCursor.decode(page.nextCursor())).isEqualTo(6L);
+        verify(taskRepository, never()).findAllTasks(any(Pageable.class));
+    }
+
+    @Test
+    void taskService_getAllTasksAfter_shouldReturnNullCursorOnLastPage() {
+        var task1 = TaskMapper.fromEntityToDomain(new TaskEntity(5L,"test1", null,1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+
+        when(taskRepository.findAllTasksAfterId(0L, Limit.of(3)))
+                .thenReturn(List.of(task1));
+
+        TaskCursorPage page = taskService.getAllTasksAfter("", 2);
+
+        Assertions.assertThat(page.content()).hasSize(1);
+        Assertions.assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void taskService_getAllTasksAfter_shouldThrowOnInvalidCursor() {
+        Assertions.assertThatThrownBy(() -> taskService.getAllTasksAfter("not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void taskService_pagedReads_shouldRejectPageSizeAboveMaximum() {
+        int tooLarge = TaskService.MAX_PAGE_SIZE + 1;
+
+        Assertions.assertThatThrownBy(() -> taskService.getAllTasksAfter("", Integer.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must not be greater than " + TaskService.MAX_PAGE_SIZE);
+        Assertions.assertThatThrownBy(() -> taskService.getAllTasks(Pageable.ofSize(tooLarge)))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> taskService.getOverdueTasksAfter(null, "", tooLarge))
+                .isInstanceOf(IllegalArgumentException.class);
+        TaskSearchFilter filter = TaskSearchFilter.builder().pageSize(tooLarge).build();
+        Assertions.assertThatThrownBy(() -> taskService.searchAllByFilter(filter))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> taskService.searchAllByFilterAfter(filter, ""))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void taskService_getOverdueTasksAfter_shouldContinueFromDeadlineCursor() {
+        LocalDateTime deadline = LocalDateTime.of(2025, 1, 1, 10, 0);
+        var task1 = TaskMapper.fromEntityToDomain(new TaskEntity(5L,"test1", null,1L,2L,Status.CREATED, deadline.minusDays(5), deadline, Priority.LOW,null));
+        var task2 = TaskMapper.fromEntityToDomain(new TaskEntity(3L,"test2", null,1L,2L,Status.CREATED, deadline.minusDays(5), deadline.plusHours(1), Priority.LOW,null));
+        var task3 = TaskMapper.fromEntityToDomain(new TaskEntity(4L,"test3", null,1L,2L,Status.CREATED, deadline.minusDays(5), deadline.plusHours(1), Priority.LOW,null));
+
+        when(taskRepository.findOpenWithDeadlineBefore(eq(2L), any(LocalDateTime.class), eq(new TaskDeadlineCursor(deadline, 4L)), eq(Limit.of(3))))
+                .thenReturn(List.of(task1, task2, task3));
+
+        TaskCursorPage page = taskService.getOverdueTasksAfter(2L, TaskDeadlineCursor.encode(deadline, 4L), 2);
+
+        Assertions.assertThat(page.content())
+                .extracting(Task::id)
+                .containsExactly(5L, 3L);
+        Assertions.assertThat(TaskDeadlineCursor.decode(page.nextCursor()))
+                .isEqualTo(new TaskDeadlineCursor(deadline.plusHours(1), 3L));
+    }
+
+    @Test
+    void taskService_getOverdueTasksAfter_shouldThrowOnInvalidCursor() {
+        Assertions.assertThatThrownBy(() -> taskService.getOverdueTasksAfter(null, TaskCursor.encode(4L), 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void taskService_searchAllByFilter_shouldRejectEmptyDateRange() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 10, 0);
+        TaskSearchFilter filter = TaskSearchFilter.builder().deadlineFrom(from).deadlineTo(from).build();
+
+        Assertions.assertThatThrownBy(() -> taskService.searchAllByFilter(filter))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("deadlineFrom");
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void taskService_searchAllByFilterAfter_shouldPassFilterAndDecodedCursor() {
+        TaskSearchFilter filter = TaskSearchFilter.builder().creatorId(2L).assignedUserId(2L).status(Status.IN_PROGRESS).pageSize(1).build();
+        var task1 = TaskMapper.fromEntityToDomain(new TaskEntity(11L,"test1", null,2L,2L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+        var task2 = TaskMapper.fromEntityToDomain(new TaskEntity(12L,"test2", null,2L,2L,Status.IN_PROGRESS, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+
+        when(taskRepository.searchAllByFilterAfterId(filter, 10L, Limit.of(2)))
+                .thenReturn(List.of(task1, task2));
+
+        TaskCursorPage page = taskService.searchAllByFilterAfter(filter, TaskCursor.encode(10L));
+
+        Assertions.assertThat(page.content())
+                .extracting(Task::id)
+                .containsExactly(11L);
+        Assertions.assertThat(TaskCursor.decode(page.nextCursor())).isEqualTo(11L);
+    }
+
+
+    @Test
+    void taskService_createNewTasks_shouldSaveValidTasksAndReportInvalidOnes() {
+        var validTask = Task.builder()
+                .title("test1")
+                .creatorId(1L)
+                .assignedUserId(1L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+        var invalidTask = Task.builder()
+                .title("")
+                .creatorId(1L)
+                .assignedUserId(1L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+
+        when(taskRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<TaskEntity> entities = inv.getArgument(0);
+            long id = 100L;
+            for (TaskEntity entity : entities) {
+                entity.setId(id++);
+            }
+            return entities;
+        });
+
+        List<TaskBatchResult> results = taskService.createNewTasks(Arrays.asList(validTask, invalidTask, null, validTask));
+
+        Assertions.assertThat(results).hasSize(4);
+        Assertions.assertThat(results.get(0).task())
+                .matches(t -> t.id().equals(100L) && t.status() == Status.CREATED && t.createDateTime() != null);
+        Assertions.assertThat(results.get(1).error()).contains("title");
+        Assertions.assertThat(results.get(2).error()).isEqualTo("Task must not be null");
+        Assertions.assertThat(results.get(3).task().id()).isEqualTo(101L);
+
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(captor.capture());
+        Assertions.assertThat(captor.getValue()).hasSize(2);
+        verify(taskRepository).flush();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void taskService_createNewTasks_shouldThrowWhenBatchIsTooLarge() {
+        List<Task> tooMany = Collections.nCopies(TaskService.MAX_BATCH_SIZE + 1, Task.builder().build());
+
+        Assertions.assertThatThrownBy(() -> taskService.createNewTasks(tooMany))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cannot create more than");
+
+        verify(taskRepository, never()).saveAll(anyList());
+    }
+
+
+    @Test
+    void taskService_changeStatuses_shouldCompleteWithOneUpdatePerPreviousStatus() {
+        var created = Task.builder().id(1L).assignedUserId(2L).status(Status.CREATED).version(0L).build();
+        var updated = Task.builder().id(2L).assignedUserId(2L).status(Status.UPDATED).version(3L).build();
+        var done = Task.builder().id(3L).assignedUserId(2L).status(Status.DONE).version(1L).build();
+
+        when(taskRepository.findAllTasksByIdIn(List.of(3L, 1L, 4L, 2L))).thenReturn(List.of(created, updated, done));
+        when(taskRepository.completeAll(eq(List.of(1L)), eq(Status.CREATED), eq(2L), any(LocalDateTime.class))).thenReturn(1);
+        when(taskRepository.completeAll(eq(List.of(2L)), eq(Status.UPDATED), eq(2L), any(LocalDateTime.class))).thenReturn(1);
+        when(counterRepository.add(anyLong(), any(Status.class), anyLong())).thenReturn(1);
+
+        List<TaskStatusResult> results = taskService.changeStatuses(
+                new TaskBulkStatusRequest(List.of(3L, 1L, 4L, 2L, 1L), null, Status.DONE));
+
+        Assertions.assertThat(results).containsExactly(
+                TaskStatusResult.unchanged(3L),
+                TaskStatusResult.changed(1L),
+                TaskStatusResult.notFound(4L),
+                TaskStatusResult.changed(2L));
+        var inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).add(2L, Status.CREATED, -1);
+        inOrder.verify(counterRepository).add(2L, Status.DONE, 2);
+        inOrder.verify(counterRepository).add(2L, Status.UPDATED, -1);
+        var captor = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        Assertions.assertThat(captor.getAllValues())
+                .extracting(event -> event.task().status(), event -> event.task().version())
+                .containsExactly(Assertions.tuple(Status.DONE, 1L), Assertions.tuple(Status.DONE, 4L));
+        Assertions.assertThat(captor.getAllValues()).allMatch(event -> event.task().doneDataTime() != null);
+        verify(taskRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void taskService_changeStatuses_shouldStartOnlyAsManyTasksAsTheLimitAllows() {
+        var tasks = List.of(
+                Task.builder().id(4L).assignedUserId(2L).status(Status.CREATED).version(0L).build(),
+                Task.builder().id(1L).assignedUserId(2L).status(Status.CREATED).version(0L).build(),
+                Task.builder().id(3L).assignedUserId(2L).status(Status.DONE).version(0L).build(),
+                Task.builder().id(2L).assignedUserId(2L).status(Status.CREATED).version(0L).build());
+        TaskSearchFilter filter = TaskSearchFilter.builder().assignedUserId(2L).build();
+        var counter = new UserTaskCounterEntity(2L, Status.IN_PROGRESS, TaskService.MAX_IN_PROGRESS_TASKS - 2L);
+
+        when(taskRepository.searchAllByFilter(eq(filter), any(Pageable.class))).thenReturn(tasks);
+        when(counterRepository.lockByAssignedUserIdAndStatus(2L, Status.CREATED))
+                .thenReturn(Optional.of(new UserTaskCounterEntity(2L, Status.CREATED, 3)));
+        when(counterRepository.lockByAssignedUserIdAndStatus(2L, Status.IN_PROGRESS)).thenReturn(Optional.of(counter));
+        when(taskRepository.markAllInProgress(List.of(1L, 2L), Status.CREATED, 2L)).thenReturn(2);
+        when(counterRepository.add(anyLong(), any(Status.class), anyLong())).thenReturn(1);
+
+        List<TaskStatusResult> results = taskService.changeStatuses(new TaskBulkStatusRequest(null, filter, Status.IN_PROGRESS));
+
+        Assertions.assertThat(results)
+                .extracting(TaskStatusResult::id, TaskStatusResult::outcome)
+                .containsExactly(
+                        Assertions.tuple(4L, TaskStatusResult.Outcome.REJECTED),
+                        Assertions.tuple(1L, TaskStatusResult.Outcome.CHANGED),
+                        Assertions.tuple(3L, TaskStatusResult.Outcome.REJECTED),
+                        Assertions.tuple(2L, TaskStatusResult.Outcome.CHANGED));
+        Assertions.assertThat(results.get(0).error()).contains("User ID 2");
+        // the task rows first, then the counter rows in Status order: CREATED is locked before the slots are taken
+        var inOrder = inOrder(taskRepository, counterRepository);
+        inOrder.verify(taskRepository).lockAllByIdIn(List.of(1L, 2L, 3L, 4L));
+        inOrder.verify(counterRepository).lockByAssignedUserIdAndStatus(2L, Status.CREATED);
+        inOrder.verify(counterRepository).lockByAssignedUserIdAndStatus(2L, Status.IN_PROGRESS);
+        inOrder.verify(counterRepository).add(2L, Status.IN_PROGRESS, 2);
+        inOrder.verify(taskRepository).markAllInProgress(List.of(1L, 2L), Status.CREATED, 2L);
+        inOrder.verify(counterRepository).add(2L, Status.CREATED, -2);
+        verify(counterRepository, never()).createIfAbsent(anyLong(), any());
+        verify(eventPublisher, times(2)).publishEvent(any(TaskChangedEvent.class));
+    }
+
+    @Test
+    void taskService_changeStatuses_shouldFailWhenTaskChangedConcurrently() {
+        var created = Task.builder().id(1L).assignedUserId(2L).status(Status.CREATED).version(0L).build();
+
+        when(taskRepository.findAllTasksByIdIn(List.of(1L))).thenReturn(List.of(created));
+        when(taskRepository.completeAll(eq(List.of(1L)), eq(Status.CREATED), eq(2L), any(LocalDateTime.class))).thenReturn(0);
+
+        Assertions.assertThatThrownBy(() -> taskService.changeStatuses(new TaskBulkStatusRequest(List.of(1L), null, Status.DONE)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("modified concurrently");
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void taskService_changeStatuses_shouldRejectInvalidRequests() {
+        TaskSearchFilter filter = TaskSearchFilter.builder().assignedUserId(2L).build();
+
+        Assertions.assertThatThrownBy(() -> taskService.changeStatuses(new TaskBulkStatusRequest(List.of(1L), filter, Status.DONE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Either ids or filter");
+        Assertions.assertThatThrownBy(() -> taskService.changeStatuses(new TaskBulkStatusRequest(null, null, Status.DONE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Either ids or filter");
+        Assertions.assertThatThrownBy(() -> taskService.changeStatuses(new TaskBulkStatusRequest(List.of(1L), null, Status.UPDATED)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("IN_PROGRESS and Status.DONE");
+        List<Long> tooMany = LongStream.rangeClosed(1, TaskService.MAX_BATCH_SIZE + 1).boxed().toList();
+        Assertions.assertThatThrownBy(() -> taskService.changeStatuses(new TaskBulkStatusRequest(tooMany, null, Status.DONE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cannot change more than");
+
+        verifyNoInteractions(taskRepository);
+    }
+
+
+    @Test
+    void taskService_deleteTasks_shouldDeleteIdsInOneStatementAndReportMissingOnes() {
+        var created = Task.builder().id(1L).assignedUserId(3L).status(Status.CREATED).build();
+        var done1 = Task.builder().id(2L).assignedUserId(2L).status(Status.DONE).build();
+        var done2 = Task.builder().id(4L).assignedUserId(2L).status(Status.DONE).build();
+
+        when(taskRepository.deleteAllReturning(List.of(4L, 1L, 5L, 2L))).thenReturn(List.of(created, done1, done2));
+
+        var result = taskService.deleteTasks(new TaskBulkDeleteRequest(List.of(4L, 1L, 5L, 2L, 1L), null));
+
+        Assertions.assertThat(result).isEqualTo(new TaskBulkDeleteResult(3, List.of(5L)));
+        var inOrder = inOrder(counterRepository);
+        inOrder.verify(counterRepository).add(2L, Status.DONE, -2);
+        inOrder.verify(counterRepository).add(3L, Status.CREATED, -1);
+        verify(eventPublisher, times(3)).publishEvent(any(TaskChangedEvent.class));
+        verify(transactionManager).commit(any());
+        verify(taskRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void taskService_deleteTasks_shouldWalkFilterByIdInOneTransactionPerChunk() {
+        TaskSearchFilter filter = TaskSearchFilter.builder()
+                .status(Status.DONE)
+                .doneTo(LocalDateTime.now().minusDays(30))
+                .build();
+        var done7 = Task.builder().id(7L).assignedUserId(2L).status(Status.DONE).build();
+        var done9 = Task.builder().id(9L).assignedUserId(2L).status(Status.DONE).build();
+
+        when(taskRepository.lockIdsByFilterAfterId(eq(filter), eq(0L), any(Limit.class))).thenReturn(List.of(7L, 9L));
+        when(taskRepository.lockIdsByFilterAfterId(eq(filter), eq(9L), any(Limit.class))).thenReturn(List.of());
+        when(taskRepository.deleteAllReturning(List.of(7L, 9L))).thenReturn(List.of(done7, done9));
+
+        var result = taskService.deleteTasks(new TaskBulkDeleteRequest(null, filter));
+
+        Assertions.assertThat(result).isEqualTo(new TaskBulkDeleteResult(2, List.of()));
+        verify(counterRepository).add(2L, Status.DONE, -2);
+        verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(done7));
+        verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(done9));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void taskService_deleteTasks_shouldRejectInvalidRequests() {
+        TaskSearchFilter filter = TaskSearchFilter.builder().status(Status.DONE).build();
+
+        Assertions.assertThatThrownBy(() -> taskService.deleteTasks(new TaskBulkDeleteRequest(List.of(1L), filter)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Either ids or filter");
+        Assertions.assertThatThrownBy(() -> taskService.deleteTasks(new TaskBulkDeleteRequest(null, null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Either ids or filter");
+        Assertions.assertThatThrownBy(() -> taskService.deleteTasks(new TaskBulkDeleteRequest(null, TaskSearchFilter.builder().pageSize(10).build())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least one condition");
+        List<Long> tooMany = LongStream.rangeClosed(1, TaskService.MAX_BATCH_SIZE + 1).boxed().toList();
+        Assertions.assertThatThrownBy(() -> taskService.deleteTasks(new TaskBulkDeleteRequest(tooMany, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(taskRepository, transactionManager);
+    }
+
+
+    @Test
+    void taskService_exportTasks_shouldPassEveryTaskToSink() {
+        TaskSearchFilter filter = TaskSearchFilter.builder().assignedUserId(1L).build();
+        var task1 = TaskMapper.fromEntityToDomain(new TaskEntity(1L,"test1", null,1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+        var task2 = TaskMapper.fromEntityToDomain(new TaskEntity(2L,"test2", null,1L,1L,Status.CREATED, LocalDateTime.now(),LocalDateTime.now().plusDays(5), Priority.LOW,null));
+
+        when(taskRepository.searchAllByFilterAfterId(filter, 0L, Limit.of(TaskService.EXPORT_PAGE_SIZE)))
+                .thenReturn(List.of(task1, task2));
+
+        List<Task> exported = new ArrayList<>();
+        taskService.exportTasks(filter, exported::add);
+
+        Assertions.assertThat(exported)
+                .extracting(Task::id)
+                .containsExactly(1L, 2L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void taskService_exportTasks_shouldReadEveryPageInItsOwnTransaction() {
+        TaskSearchFilter filter = TaskSearchFilter.builder().status(Status.DONE).build();
+        List<Task> fullPage = LongStream.rangeClosed(1, TaskService.EXPORT_PAGE_SIZE)
+                .mapToObj(id -> Task.builder().id(id).status(Status.DONE).build())
+                .toList();
+        var last = Task.builder().id(5000L).status(Status.DONE).build();
+
+        when(taskRepository.searchAllByFilterAfterId(filter, 0L, Limit.of(TaskService.EXPORT_PAGE_SIZE)))
+                .thenReturn(fullPage);
+        when(taskRepository.searchAllByFilterAfterId(filter, (long) TaskService.EXPORT_PAGE_SIZE, Limit.of(TaskService.EXPORT_PAGE_SIZE)))
+                .thenReturn(List.of(last));
+
+        List<Task> exported = new ArrayList<>();
+        taskService.exportTasks(filter, exported::add);
+
+        Assertions.assertThat(exported).hasSize(TaskService.EXPORT_PAGE_SIZE + 1).endsWith(last);
+        verify(transactionManager, times(2)).commit(any());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+@SpringBootTest
+class TaskTextIndexTest {
+
+    @Autowired
+    private TaskTextIndex textIndex;
+
+    @Autowired
+    private TaskService taskService;
+
+
+    @Test
+    void indexFollowsCommittedChanges() {
+        Task loaded = taskService.createNewTask(newTask("Quarterly budget", "numbers for finance"));
+        Assertions.assertThat(textIndex.search("budget")).containsExactly(loaded.id());
+
+        Task created = taskService.createNewTask(newTask("Budget review", null));
+        Assertions.assertThat(textIndex.search("budget")).containsExactlyInAnyOrder(loaded.id(), created.id());
+
+        taskService.editTask(created.id(), newTask("Hiring plan", null), null);
+        Assertions.assertThat(textIndex.search("budget")).containsExactly(loaded.id());
+        Assertions.assertThat(textIndex.search("hiring")).containsExactly(created.id());
+
+        taskService.deleteTask(loaded.id());
+        Assertions.assertThat(textIndex.search("budget")).isEmpty();
+        Assertions.assertThat(textIndex.search("finance")).isEmpty();
+    }
+
+
+    @Test
+    void tokenize_splitsOnNonLetterCharactersAndLowerCases() {
+        Assertions.assertThat(TaskTextIndex.tokenize("Fix  login-page (v2), ПРОВЕРИТЬ тесты!"))
+                .containsExactly("fix", "login", "page", "v2", "проверить", "тесты");
+        Assertions.assertThat(TaskTextIndex.tokenize("  ")).isEmpty();
+    }
+
+
+    private static Task newTask(String title, String description) {
+        return Task.builder()
+                .title(title)
+                .description(description)
+                .creatorId(1L)
+                .assignedUserId(5001L)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+    }
+}
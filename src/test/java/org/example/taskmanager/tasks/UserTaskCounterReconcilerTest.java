@@ -0,0 +1,63 @@
+package org.example.taskmanager.tasks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+@SpringBootTest
+class UserTaskCounterReconcilerTest {
+
+    @Autowired
+    private UserTaskCounterReconciler reconciler;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserTaskCounterRepository counterRepository;
+
+
+    @Test
+    void countersFollowTransitionsAndDriftIsRepaired() {
+        long userId = 2001L;
+        Task first = taskService.createNewTask(newTask(userId));
+        Task second = taskService.createNewTask(newTask(userId));
+        taskService.switchTaskToInProgress(first.id());
+        taskService.getTaskDone(second.id());
+
+        assertStats(userId, 0, 1, 1);
+
+        // drift, e.g. a row changed by hand
+        counterRepository.save(new UserTaskCounterEntity(userId, Status.DONE, 42));
+        counterRepository.deleteById(new UserTaskCounterId(userId, Status.IN_PROGRESS));
+        assertStats(userId, 0, 0, 42);
+        Assertions.assertThat(counterRepository.findDriftedAssignedUserIds()).contains(userId);
+
+        reconciler.reconcile();
+
+        assertStats(userId, 0, 1, 1);
+        Assertions.assertThat(counterRepository.findDriftedAssignedUserIds()).doesNotContain(userId);
+    }
+
+
+    private void assertStats(long userId, long created, long inProgress, long done) {
+        var counts = taskService.getUserTaskStats(userId).countsByStatus();
+        Assertions.assertThat(counts)
+                .containsEntry(Status.CREATED, created)
+                .containsEntry(Status.IN_PROGRESS, inProgress)
+                .containsEntry(Status.DONE, done);
+    }
+
+    private static Task newTask(long userId) {
+        return Task.builder()
+                .title("reconcile")
+                .creatorId(1L)
+                .assignedUserId(userId)
+                .deadLineDate(LocalDateTime.now().plusDays(5))
+                .priority(Priority.LOW)
+                .build();
+    }
+}
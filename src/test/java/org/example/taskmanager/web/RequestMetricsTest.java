@@ -0,0 +1,79 @@
+package org.example.taskmanager.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.example.taskmanager.tasks.Priority;
+import org.example.taskmanager.tasks.Task;
+import org.example.taskmanager.tasks.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class RequestMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskService taskService;
+
+
+    @Test
+    void getTaskById_recordsEndpointServiceAndStatementMetrics() throws Exception {
+        Task created = taskService.createNewTask(Task.builder()
+                .title("metrics")
+                .creatorId(6001L)
+                .assignedUserId(6001L)
+                .deadLineDate(LocalDateTime.now().plusDays(1))
+                .priority(Priority.LOW)
+                .build());
+
+        mockMvc.perform(get("/tasks/{id}", created.id())).andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/{id}", created.id())).andExpect(status().isOk());
+
+        // the second request is answered by the task cache, which sits in front of the service timer
+        Assertions.assertThat(meterRegistry.get("http.server.requests").tag("uri", "/tasks/{id}").timer().count())
+                .isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get("tasks.service").tag("method", "getTaskById").timer().count())
+                .isEqualTo(1);
+        var statements = meterRegistry.get(RequestQueryMetricsFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", "/tasks/{id}")
+                .summary();
+        Assertions.assertThat(statements.count()).isEqualTo(2);
+        Assertions.assertThat(statements.totalAmount()).isEqualTo(1);
+    }
+
+
+    @Test
+    void prometheusEndpoint_exposesPoolHibernateAndCacheMeters() throws Exception {
+        mockMvc.perform(get("/tasks/user/{assignedUserId}", 6002L)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("hikaricp_connections_active"),
+                        containsString("hibernate_query_executions_total"),
+                        containsString("hibernate_entities_loads_total"),
+                        containsString("cache_gets_total{application=\"taskmanager\",cache=\"tasks\""),
+                        containsString("http_server_requests_seconds_bucket"),
+                        containsString("tasks_http_db_statements_bucket"))));
+    }
+}